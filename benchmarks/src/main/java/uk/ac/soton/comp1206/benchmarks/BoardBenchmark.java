@@ -0,0 +1,76 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.soton.comp1206.engine.Board;
+import uk.ac.soton.comp1206.engine.GamePiece;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks checking and placing pieces on a Board, the model behind the Grid
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    @Param({"5"})
+    public int size;
+
+    private Board board;
+
+    //stays empty between operations
+    private Board empty;
+
+    private GamePiece[] pieces;
+
+    @Setup
+    public void setup() {
+        board = new Board(size, size);
+        empty = new Board(size, size);
+        pieces = new GamePiece[GamePiece.PIECES];
+        for (var i = 0; i < GamePiece.PIECES; i++) {
+            pieces[i] = GamePiece.createPiece(i);
+        }
+
+        //fill about a third of the board so some placements fit and some don't
+        var random = new Random(1206);
+        for (var y = 0; y < size; y++) {
+            for (var x = 0; x < size; x++) {
+                if (random.nextInt(3) == 0) {
+                    board.set(x, y, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check every piece at every cell of the board
+     */
+    @Benchmark
+    public void canPlayPiece(Blackhole blackhole) {
+        for (var piece : pieces) {
+            for (var y = 0; y < size; y++) {
+                for (var x = 0; x < size; x++) {
+                    blackhole.consume(board.canPlayPiece(piece, x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Place a piece and take it off again
+     */
+    @Benchmark
+    public long playPiece() {
+        empty.playPiece(pieces[2], 1, 1);
+        long placed = empty.getOccupancy();
+        empty.clear(placed);
+        return placed;
+    }
+}
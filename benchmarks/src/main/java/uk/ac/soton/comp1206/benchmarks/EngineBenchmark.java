@@ -0,0 +1,78 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.soton.comp1206.engine.Board;
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.engine.GamePiece;
+import uk.ac.soton.comp1206.engine.LoopScheduler;
+import uk.ac.soton.comp1206.engine.UniformPieceGenerator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the GameEngine: single moves that clear a line (placing, clearing, scoring and moving on to the next
+ * piece), and whole games played with random moves until the player runs out of lives.
+ *
+ * The engines run on a manual clock and are never started, so no timer thread is involved.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+
+    /**
+     * A vertical line of three
+     */
+    private static final GamePiece LINE = GamePiece.createPiece(0);
+
+    private final LoopScheduler scheduler = LoopScheduler.manual();
+
+    private GameEngine engine;
+
+    private Board board;
+
+    private long seed = 0;
+
+    @Setup
+    public void setup() {
+        board = new Board(5, 5);
+        engine = new GameEngine(board, new UniformPieceGenerator(1206), scheduler);
+    }
+
+    /**
+     * Fill the top of the first column, then drop a line into the rest of it so the column clears
+     */
+    @Benchmark
+    public int playAndClear() {
+        board.set(0, 0, 1);
+        board.set(0, 1, 1);
+        engine.setCurrentPiece(LINE);
+        engine.play(0, 3);
+        return engine.getScore();
+    }
+
+    /**
+     * Play a whole game: each move tries random cells for the current piece and lets the timer run out if none of a
+     * handful fit
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int playout() {
+        var random = new Random(seed);
+        var game = new GameEngine(new Board(5, 5), new UniformPieceGenerator(seed++), scheduler);
+        while (!game.isOver()) {
+            var played = false;
+            for (var attempt = 0; attempt < 10 && !played; attempt++) {
+                played = game.play(random.nextInt(5), random.nextInt(5));
+            }
+            if (!played) {
+                game.expire();
+            }
+        }
+        return game.getScore();
+    }
+}
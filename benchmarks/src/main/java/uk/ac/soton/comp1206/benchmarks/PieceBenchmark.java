@@ -0,0 +1,48 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.soton.comp1206.engine.GamePiece;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks creating and rotating GamePieces
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceBenchmark {
+
+    private GamePiece piece;
+
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        piece = GamePiece.createPiece(0);
+    }
+
+    @Benchmark
+    public GamePiece createPiece() {
+        next = (next + 1) % GamePiece.PIECES;
+        return GamePiece.createPiece(next);
+    }
+
+    @Benchmark
+    public int rotate() {
+        piece.rotate();
+        return piece.getRotation();
+    }
+
+    /**
+     * Rotate then read the blocks, as the piece previews do
+     */
+    @Benchmark
+    public int[][] rotateAndGetBlocks() {
+        piece.rotate();
+        return piece.getBlocks();
+    }
+}
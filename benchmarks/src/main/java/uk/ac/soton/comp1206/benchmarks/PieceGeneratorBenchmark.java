@@ -0,0 +1,41 @@
+package uk.ac.soton.comp1206.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.soton.comp1206.engine.PieceGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each kind of PieceGenerator, one piece at a time and pre-generating in bulk
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceGeneratorBenchmark {
+
+    @Param({"uniform", "bag", "weighted"})
+    public String kind;
+
+    private PieceGenerator generator;
+
+    private final int[] pieces = new int[256];
+
+    @Setup
+    public void setup() {
+        generator = PieceGenerator.create(kind, 1206);
+    }
+
+    @Benchmark
+    public int next() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public int[] fill() {
+        generator.fill(pieces, 0, pieces.length);
+        return pieces;
+    }
+}
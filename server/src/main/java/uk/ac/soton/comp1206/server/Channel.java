@@ -0,0 +1,311 @@
+package uk.ac.soton.comp1206.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Channel is a lobby a group of players chat in and then play games together. The first player in is the host, who
+ * starts each game; if they leave the next player along takes over. No one can join while a game is running; once
+ * every player in it is out, the channel opens again for the host to start another.
+ *
+ * Every player in a game is dealt the same pieces: each game has its own seed, taken from the channel's, and each
+ * player deals from their own generator created from it, so the players can ask for pieces as fast or as slowly as
+ * they like and still get the same sequence, without the channel keeping a list of pieces dealt.
+ *
+ * Every method locks the channel, so membership and the players' standings stay consistent while players on
+ * different connection threads act at once. Messages to other players are only queued on their connections, so
+ * holding the lock never waits on the network.
+ */
+public class Channel {
+
+    private static final Logger logger = LogManager.getLogger(Channel.class);
+
+    private final String name;
+
+    private final long seed;
+
+    private final List<Player> members = new ArrayList<>();
+
+    private Player host = null;
+
+    //number of games started, so each gets its own seed
+    private int games = 0;
+
+    //whether a game is running, read by the lobby when listing channels
+    private volatile boolean started = false;
+
+    //once the last player leaves the channel is gone for good
+    private boolean closed = false;
+
+    /**
+     * Create a channel
+     * @param name name of the channel
+     * @param seed seed for the games' pieces
+     */
+    public Channel(String name, long seed) {
+        this.name = name;
+        this.seed = seed;
+    }
+
+    /**
+     * Add a player, making them the host if they're the first in
+     * @param player the player
+     * @return false if the game has started or the channel has closed
+     */
+    public synchronized boolean join(Player player) {
+        if (closed || started) {
+            return false;
+        }
+        members.add(player);
+        player.setChannel(this);
+        player.send("JOIN " + name);
+        if (host == null) {
+            host = player;
+            player.send("HOST");
+        }
+        broadcast(users());
+        return true;
+    }
+
+    /**
+     * Get whether a player could join now, so a player isn't taken out of their current channel for nothing. Another
+     * player may still start the game or close the channel before the join itself.
+     * @return false if the game has started or the channel has closed
+     */
+    public synchronized boolean canJoin() {
+        return !closed && !started;
+    }
+
+    /**
+     * Remove a player. If they were still playing, they're out of the game, which ends it if they were the last one
+     * in.
+     * @param player the player
+     * @return true if that left the channel empty, closing it
+     */
+    public synchronized boolean part(Player player) {
+        if (!members.remove(player)) {
+            return false;
+        }
+        player.setChannel(null);
+        player.send("PARTED");
+        var wasPlaying = player.isPlaying() && !player.isDead();
+        player.endGame();
+
+        if (members.isEmpty()) {
+            closed = true;
+            logger.info("Channel {} closed", name);
+            return true;
+        }
+        if (host == player) {
+            host = members.get(0);
+            host.send("HOST");
+        }
+        if (wasPlaying) {
+            broadcast("DIE " + player.getName());
+        }
+        broadcast(users());
+        checkGameOver();
+        return false;
+    }
+
+    /**
+     * Change a player's name
+     * @param player the player
+     * @param name the new name
+     * @return false if someone else in the channel already has the name
+     */
+    public synchronized boolean rename(Player player, String name) {
+        for (var member : members) {
+            if (member != player && member.getName().equals(name)) {
+                return false;
+            }
+        }
+        player.setName(name);
+        broadcast(users());
+        return true;
+    }
+
+    /**
+     * Start a game. Only the host can.
+     * @param player the player asking
+     * @return false if they aren't the host or a game is already running
+     */
+    public synchronized boolean start(Player player) {
+        if (player != host || started) {
+            return false;
+        }
+        started = true;
+        //golden ratio increments, as SplittableRandom itself uses, keep the games' seeds far apart
+        var gameSeed = seed + games++ * 0x9e3779b97f4a7c15L;
+        for (var member : members) {
+            member.startGame(gameSeed);
+        }
+        broadcast("START");
+        logger.info("Channel {} started a game for {} players", name, members.size());
+        return true;
+    }
+
+    /**
+     * Deal a player their next piece
+     * @param player the player
+     * @return false if there's no game running
+     */
+    public synchronized boolean deal(Player player) {
+        if (!started || !player.isPlaying()) {
+            return false;
+        }
+        player.send("PIECE " + player.nextPiece());
+        return true;
+    }
+
+    /**
+     * Update a player's score and tell everyone. Ignored unless they're in the game.
+     * @param player the player
+     * @param score their new score
+     */
+    public synchronized void score(Player player, int score) {
+        if (!player.isPlaying()) {
+            return;
+        }
+        player.setScore(score);
+        broadcast("SCORE " + player.getName() + ":" + score);
+    }
+
+    /**
+     * Update a player's lives and tell everyone. Ignored unless they're in the game.
+     * @param player the player
+     * @param lives their lives left
+     */
+    public synchronized void lives(Player player, int lives) {
+        if (!player.isPlaying()) {
+            return;
+        }
+        player.setLives(lives);
+        broadcast("LIVES " + player.getName() + ":" + lives);
+    }
+
+    /**
+     * A player is out of the game
+     * @param player the player
+     * @return true if that ended the game
+     */
+    public synchronized boolean die(Player player) {
+        if (!player.isPlaying() || player.isDead()) {
+            return false;
+        }
+        player.setDead();
+        broadcast("DIE " + player.getName());
+        return checkGameOver();
+    }
+
+    /**
+     * End the game once everyone in it is out, so the channel can be joined and the host can start another
+     * @return true if the game ended
+     */
+    private boolean checkGameOver() {
+        if (!started) {
+            return false;
+        }
+        for (var member : members) {
+            if (member.isPlaying() && !member.isDead()) {
+                return false;
+            }
+        }
+        started = false;
+        logger.info("Channel {} game over", name);
+        return true;
+    }
+
+    /**
+     * Pass a player's board on to everyone else
+     * @param player the player
+     * @param board the board, as they sent it
+     */
+    public synchronized void board(Player player, String board) {
+        var message = "BOARD " + player.getName() + ":" + board;
+        for (var member : members) {
+            if (member != player) {
+                member.send(message);
+            }
+        }
+    }
+
+    /**
+     * Send a chat message to everyone, including whoever wrote it
+     * @param player who wrote it
+     * @param text the message
+     */
+    public synchronized void chat(Player player, String text) {
+        broadcast("MSG " + player.getName() + ":" + text);
+    }
+
+    /**
+     * Get the names of everyone in the channel
+     * @return USERS message
+     */
+    public synchronized String users() {
+        var users = new StringBuilder("USERS");
+        var separator = ' ';
+        for (var member : members) {
+            users.append(separator).append(member.getName());
+            separator = '\n';
+        }
+        return users.toString();
+    }
+
+    /**
+     * Get everyone's score and lives, or DEAD if they're out
+     * @return SCORES message
+     */
+    public synchronized String scores() {
+        var scores = new StringBuilder("SCORES");
+        var separator = ' ';
+        for (var member : members) {
+            scores.append(separator).append(member.getName()).append(':').append(member.getScore()).append(':');
+            if (member.isDead()) {
+                scores.append("DEAD");
+            } else {
+                scores.append(member.getLives());
+            }
+            separator = '\n';
+        }
+        return scores.toString();
+    }
+
+    private void broadcast(String message) {
+        for (var member : members) {
+            member.send(message);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get whether a game is running, so no one else can join
+     * @return true while a game is running
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Get whether the last player has left, so the channel is gone for good
+     * @return true once closed
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public synchronized int getSize() {
+        return members.size();
+    }
+}
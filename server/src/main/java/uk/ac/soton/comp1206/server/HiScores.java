@@ -0,0 +1,137 @@
+package uk.ac.soton.comp1206.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HiScores is the server's table of the best online scores, kept in a file of name:score lines (the same format as
+ * the game's local scores.txt) so it survives a restart.
+ *
+ * The HISCORES reply is built once and kept until the table changes, since every player asks for it after every
+ * game. A new entry rewrites the file through a temporary file moved into place, so a crash never leaves half a table.
+ */
+public class HiScores {
+
+    private static final Logger logger = LogManager.getLogger(HiScores.class);
+
+    /**
+     * Number of scores kept
+     */
+    public static final int SIZE = 10;
+
+    private final Path path;
+
+    //highest first, guarded by this
+    private final List<Entry> entries = new ArrayList<>();
+
+    private String message = null;
+
+    /**
+     * Load the table from a file, starting empty if there isn't one yet
+     * @param path file the table is kept in
+     */
+    public HiScores(Path path) {
+        this.path = path;
+        try {
+            for (var line : Files.readAllLines(path)) {
+                var colon = line.lastIndexOf(':');
+                if (colon <= 0) {
+                    continue;
+                }
+                try {
+                    insert(line.substring(0, colon), Integer.parseInt(line.substring(colon + 1).trim()));
+                } catch (NumberFormatException e) {
+                    logger.warn("Skipping malformed hiscore: {}", line);
+                }
+            }
+            logger.info("Loaded {} hiscores from {}", entries.size(), path);
+        } catch (NoSuchFileException e) {
+            logger.info("No hiscores in {} yet", path);
+        } catch (IOException e) {
+            logger.error("Unable to load hiscores from {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Add a score, if it's good enough to make the table
+     * @param name the player's name
+     * @param score the score
+     * @return true if it made the table
+     */
+    public synchronized boolean submit(String name, int score) {
+        if (!insert(name, score)) {
+            return false;
+        }
+        message = null;
+        save();
+        return true;
+    }
+
+    /**
+     * Get the table
+     * @return HISCORES message
+     */
+    public synchronized String message() {
+        if (message == null) {
+            var scores = new StringBuilder("HISCORES");
+            var separator = ' ';
+            for (var entry : entries) {
+                scores.append(separator).append(entry.name).append(':').append(entry.score);
+                separator = '\n';
+            }
+            message = scores.toString();
+        }
+        return message;
+    }
+
+    private boolean insert(String name, int score) {
+        //after any equal scores, so the first to get a score keeps their place
+        var index = 0;
+        while (index < entries.size() && entries.get(index).score >= score) {
+            index++;
+        }
+        if (index >= SIZE) {
+            return false;
+        }
+        entries.add(index, new Entry(name, score));
+        if (entries.size() > SIZE) {
+            entries.remove(SIZE);
+        }
+        return true;
+    }
+
+    private void save() {
+        var lines = new ArrayList<String>(entries.size());
+        for (var entry : entries) {
+            lines.add(entry.name + ":" + entry.score);
+        }
+        try {
+            var parent = path.toAbsolutePath().getParent();
+            var temp = Files.createTempFile(parent, "hiscores", ".tmp");
+            Files.write(temp, lines);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Unable to save hiscores to {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static class Entry {
+
+        private final String name;
+
+        private final int score;
+
+        private Entry(String name, int score) {
+            this.name = name;
+            this.score = score;
+        }
+    }
+}
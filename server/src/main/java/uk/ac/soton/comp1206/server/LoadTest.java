@@ -0,0 +1,211 @@
+package uk.ac.soton.comp1206.server;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The LoadTest plays many multiplayer games against a server at once, the way the game does: each channel's host
+ * creates it, the others join, the host starts it, then every player asks for a piece and reports its score several
+ * times a second. It reports the messages handled per second and how long a PIECE takes to come back.
+ *
+ * Uses the JDK's asynchronous web socket client, so thousands of players need only a handful of threads here too.
+ *
+ * Arguments: server URL (default ws://localhost:9700), channels (default 1000), players per channel (default 2) and
+ * seconds to play for (default 30).
+ */
+public class LoadTest {
+
+    /**
+     * Milliseconds between each player's moves
+     */
+    private static final int MOVE_MILLIS = 200;
+
+    /**
+     * Players connecting at once
+     */
+    private static final int CONNECT_BATCH = 100;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private volatile CountDownLatch joined;
+
+    /**
+     * Run a load test
+     * @param args server URL, channels, players per channel and seconds
+     * @throws Exception if the players can't connect
+     */
+    public static void main(String[] args) throws Exception {
+        var server = URI.create(args.length > 0 ? args[0] : "ws://localhost:" + TetrECSServer.DEFAULT_PORT);
+        var channels = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        var players = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        var seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        new LoadTest().run(server, channels, players, seconds);
+    }
+
+    private void run(URI server, int channels, int players, int seconds) throws Exception {
+        var client = HttpClient.newHttpClient();
+        var bots = new ArrayList<Bot>(channels * players);
+
+        System.out.printf("Connecting %d players to %s%n", channels * players, server);
+        for (var c = 0; c < channels; c++) {
+            for (var p = 0; p < players; p++) {
+                bots.add(new Bot("load" + c, p == 0));
+            }
+        }
+        for (var from = 0; from < bots.size(); from += CONNECT_BATCH) {
+            var batch = bots.subList(from, Math.min(from + CONNECT_BATCH, bots.size()));
+            CompletableFuture.allOf(batch.stream().map(bot -> bot.connect(client, server))
+                    .toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        }
+
+        //hosts create the channels, then everyone else joins
+        joined = new CountDownLatch(channels);
+        bots.stream().filter(bot -> bot.host).forEach(bot -> bot.send("CREATE " + bot.channel));
+        joined.await(30, TimeUnit.SECONDS);
+        joined = new CountDownLatch(channels * (players - 1));
+        bots.stream().filter(bot -> !bot.host).forEach(bot -> bot.send("JOIN " + bot.channel));
+        joined.await(30, TimeUnit.SECONDS);
+
+        System.out.printf("Playing in %d channels for %d seconds%n", channels, seconds);
+        var timer = Executors.newScheduledThreadPool(2);
+        var start = System.nanoTime();
+        bots.stream().filter(bot -> bot.host).forEach(bot -> bot.send("START"));
+        for (var bot : bots) {
+            timer.scheduleAtFixedRate(bot::move, ThreadLocalRandom.current().nextInt(MOVE_MILLIS), MOVE_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        timer.shutdownNow();
+        var elapsed = (System.nanoTime() - start) / 1e9;
+
+        var latencies = bots.stream().flatMapToLong(bot -> Arrays.stream(bot.latencies())).sorted()
+                .toArray();
+        System.out.printf("Sent %.0f/s, received %.0f/s, %d errors%n", sent.get() / elapsed, received.get() / elapsed,
+                errors.get());
+        if (latencies.length > 0) {
+            System.out.printf("PIECE round trip over %d pieces: p50 %.2fms, p99 %.2fms, max %.2fms%n",
+                    latencies.length, percentile(latencies, 0.5), percentile(latencies, 0.99),
+                    latencies[latencies.length - 1] / 1e6);
+        }
+
+        for (var bot : bots) {
+            bot.send("QUIT");
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(fraction * sorted.length))] / 1e6;
+    }
+
+    /**
+     * One simulated player
+     */
+    private class Bot implements WebSocket.Listener {
+
+        private final String channel;
+
+        private final boolean host;
+
+        //sends are chained, since the client allows one at a time
+        private CompletableFuture<WebSocket> sending;
+
+        private final StringBuilder partial = new StringBuilder();
+
+        private volatile boolean playing = false;
+
+        private int score = 0;
+
+        //send times of pieces asked for, and round trips of those that came back; guarded by this
+        private final long[] asked = new long[64];
+        private int askedHead = 0;
+        private int askedTail = 0;
+        private long[] latencies = new long[1024];
+        private int samples = 0;
+
+        private Bot(String channel, boolean host) {
+            this.channel = channel;
+            this.host = host;
+        }
+
+        private CompletableFuture<WebSocket> connect(HttpClient client, URI server) {
+            sending = client.newWebSocketBuilder().buildAsync(server, this);
+            return sending;
+        }
+
+        private synchronized void send(String message) {
+            sending = sending.thenCompose(socket -> socket.sendText(message, true));
+            sent.incrementAndGet();
+        }
+
+        /**
+         * Ask for a piece and report a new score, as the game does after each move
+         */
+        private void move() {
+            if (!playing) {
+                return;
+            }
+            synchronized (this) {
+                if (askedTail - askedHead == asked.length) {
+                    //the server is far behind, let it catch up
+                    return;
+                }
+                asked[askedTail++ % asked.length] = System.nanoTime();
+                score += 10;
+                send("PIECE");
+                send("SCORE " + score);
+            }
+        }
+
+        private synchronized long[] latencies() {
+            return Arrays.copyOf(latencies, samples);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                receive(partial.toString());
+                partial.setLength(0);
+            }
+            socket.request(1);
+            return null;
+        }
+
+        private void receive(String message) {
+            received.incrementAndGet();
+            if (message.startsWith("JOIN")) {
+                joined.countDown();
+            } else if (message.equals("START")) {
+                playing = true;
+            } else if (message.startsWith("PIECE")) {
+                synchronized (this) {
+                    if (askedHead < askedTail) {
+                        if (samples == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, samples * 2);
+                        }
+                        latencies[samples++] = System.nanoTime() - asked[askedHead++ % asked.length];
+                    }
+                }
+            } else if (message.startsWith("ERROR")) {
+                errors.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void onError(WebSocket socket, Throwable error) {
+            errors.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package uk.ac.soton.comp1206.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.network.MessageReader;
+import uk.ac.soton.comp1206.network.Protocol;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The Lobby handles every command a client sends, independent of how it arrived, keeping the channels and the
+ * hiscore table.
+ *
+ * Commands are handled on the thread the message arrived on. The channels are in a concurrent map and each channel
+ * locks itself, so players in different channels never wait on each other, and the cost of a command doesn't grow with
+ * the number of channels. The one exception is LIST, which clients poll every few seconds: its reply is built once and
+ * kept until a channel opens, starts a game, finishes one or closes.
+ *
+ * Replies use the formats Protocol decodes. Anything the server can't do is answered with ERROR and a reason.
+ */
+public class Lobby {
+
+    private static final Logger logger = LogManager.getLogger(Lobby.class);
+
+    /**
+     * Longest name allowed for a player or channel
+     */
+    private static final int MAX_NAME = 32;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    private final HiScores hiscores;
+
+    //seeds for new channels, guarded by itself
+    private final SplittableRandom seeds;
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    private final AtomicInteger players = new AtomicInteger();
+
+    //the CHANNELS reply, rebuilt after any change; guarded by this
+    private String listing = null;
+
+    /**
+     * Create a lobby
+     * @param hiscores the hiscore table
+     * @param seeds source of seeds for the channels' pieces
+     */
+    public Lobby(HiScores hiscores, SplittableRandom seeds) {
+        this.hiscores = hiscores;
+        this.seeds = seeds;
+    }
+
+    /**
+     * A new client has connected
+     * @param out sends a message to the client
+     * @return the player for the client
+     */
+    public Player connect(Consumer<String> out) {
+        players.incrementAndGet();
+        return new Player(ids.incrementAndGet(), out);
+    }
+
+    /**
+     * A client has gone, so leaves their channel
+     * @param player the player
+     */
+    public void disconnect(Player player) {
+        players.decrementAndGet();
+        part(player);
+    }
+
+    /**
+     * Handle a message from a client
+     * @param player who sent it
+     * @param message the message
+     */
+    public void receive(Player player, String message) {
+        var command = MessageReader.command(message);
+        var channel = player.getChannel();
+        try {
+            switch (command) {
+                case "LIST":
+                    player.send(listChannels());
+                    return;
+                case "CREATE":
+                    create(player, Protocol.body(message));
+                    return;
+                case "JOIN":
+                    join(player, Protocol.body(message));
+                    return;
+                case "NICK":
+                    nick(player, Protocol.body(message));
+                    return;
+                case "HISCORES":
+                    player.send(hiscores.message());
+                    return;
+                case "HISCORE":
+                    hiscore(player, Protocol.body(message));
+                    return;
+                default:
+                    break;
+            }
+
+            //everything else is about the player's channel
+            if (channel == null) {
+                player.send("ERROR Not in a channel");
+                return;
+            }
+            switch (command) {
+                case "PART":
+                    part(player);
+                    break;
+                case "USERS":
+                    player.send(channel.users());
+                    break;
+                case "MSG":
+                    channel.chat(player, Protocol.body(message));
+                    break;
+                case "START":
+                    if (!channel.start(player)) {
+                        player.send("ERROR Only the host can start the game, once");
+                    } else {
+                        invalidateListing();
+                    }
+                    break;
+                case "PIECE":
+                    if (!channel.deal(player)) {
+                        player.send("ERROR No game running");
+                    }
+                    break;
+                case "SCORE":
+                    channel.score(player, new MessageReader(message).readInt());
+                    break;
+                case "LIVES":
+                    channel.lives(player, new MessageReader(message).readInt());
+                    break;
+                case "DIE":
+                    if (channel.die(player)) {
+                        invalidateListing();
+                    }
+                    break;
+                case "BOARD":
+                    channel.board(player, Protocol.body(message));
+                    break;
+                case "SCORES":
+                    player.send(channel.scores());
+                    break;
+                default:
+                    player.send("ERROR Unknown command " + command);
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            player.send("ERROR " + e.getMessage());
+        }
+    }
+
+    private void create(Player player, String name) {
+        name = name.trim();
+        if (!isValidName(name)) {
+            player.send("ERROR Invalid channel name");
+            return;
+        }
+        long seed;
+        synchronized (seeds) {
+            seed = seeds.nextLong();
+        }
+        var channel = new Channel(name, seed);
+        if (channels.putIfAbsent(name, channel) != null) {
+            player.send("ERROR Channel " + name + " already exists");
+            return;
+        }
+        part(player);
+        channel.join(player);
+        invalidateListing();
+        logger.info("{} created channel {}", player, name);
+    }
+
+    private void join(Player player, String name) {
+        name = name.trim();
+        var channel = channels.get(name);
+        if (channel == null) {
+            player.send("ERROR No channel " + name);
+            return;
+        }
+        if (channel == player.getChannel()) {
+            return;
+        }
+        //only leave the current channel if the new one will have the player
+        if (!channel.canJoin()) {
+            player.send(joinError(channel));
+            return;
+        }
+        part(player);
+        if (!channel.join(player)) {
+            player.send(joinError(channel));
+        }
+    }
+
+    private static String joinError(Channel channel) {
+        if (channel.isClosed()) {
+            return "ERROR No channel " + channel.getName();
+        }
+        return "ERROR Channel " + channel.getName() + " has already started";
+    }
+
+    private void part(Player player) {
+        var channel = player.getChannel();
+        if (channel == null) {
+            return;
+        }
+        if (channel.part(player)) {
+            channels.remove(channel.getName(), channel);
+        }
+        //the channel may have closed, or its game ended
+        invalidateListing();
+    }
+
+    private void nick(Player player, String name) {
+        name = name.trim();
+        if (!isValidName(name)) {
+            player.send("ERROR Invalid name");
+            return;
+        }
+        var channel = player.getChannel();
+        if (channel == null) {
+            player.setName(name);
+        } else if (!channel.rename(player, name)) {
+            player.send("ERROR " + name + " is already in the channel");
+            return;
+        }
+        player.send("NICK " + name);
+    }
+
+    /**
+     * Submit a hiscore, sent as name:score. The game wraps both in angle brackets, which are ignored.
+     */
+    private void hiscore(Player player, String body) {
+        body = body.replace("<", "").replace(">", "");
+        var colon = body.lastIndexOf(':');
+        if (colon <= 0) {
+            player.send("ERROR Hiscore must be name:score");
+            return;
+        }
+        var name = body.substring(0, colon).trim();
+        var score = Integer.parseInt(body.substring(colon + 1).trim());
+        if (!isValidName(name)) {
+            player.send("ERROR Invalid name");
+            return;
+        }
+        if (hiscores.submit(name, score)) {
+            logger.info("New hiscore {}:{}", name, score);
+            player.send("NEWSCORE " + name + ":" + score);
+        }
+    }
+
+    private static boolean isValidName(String name) {
+        return !name.isEmpty() && name.length() <= MAX_NAME && name.indexOf(':') < 0 && name.indexOf('\n') < 0
+                && name.indexOf('\r') < 0;
+    }
+
+    /**
+     * Get the channels that can still be joined
+     * @return CHANNELS message
+     */
+    private synchronized String listChannels() {
+        if (listing == null) {
+            var list = new StringBuilder("CHANNELS");
+            var separator = ' ';
+            for (var channel : channels.values()) {
+                if (!channel.isStarted()) {
+                    list.append(separator).append(channel.getName());
+                    separator = '\n';
+                }
+            }
+            listing = list.toString();
+        }
+        return listing;
+    }
+
+    /**
+     * Forget the CHANNELS reply after a change, so the next LIST sees it
+     */
+    private synchronized void invalidateListing() {
+        listing = null;
+    }
+
+    public int getChannelCount() {
+        return channels.size();
+    }
+
+    public int getPlayerCount() {
+        return players.get();
+    }
+}
@@ -0,0 +1,114 @@
+package uk.ac.soton.comp1206.server;
+
+import uk.ac.soton.comp1206.engine.PieceGenerator;
+
+import java.util.function.Consumer;
+
+/**
+ * A Player is one connection to the server: its name, the channel it is in, and while a game is running its score,
+ * lives and its own copy of the channel's piece stream.
+ *
+ * The player's own commands are handled on its connection's thread, but other players in the channel read its name and
+ * standing, so the game state is only changed while holding the channel's lock and the rest is volatile.
+ */
+public class Player {
+
+    /**
+     * Lives at the start of a game, as in the client
+     */
+    static final int LIVES = 3;
+
+    private final int id;
+
+    //sends a message to this player's connection
+    private final Consumer<String> out;
+
+    private volatile String name;
+
+    private volatile Channel channel = null;
+
+    //game state, guarded by the channel's lock
+    private int score = 0;
+    private int lives = LIVES;
+    private boolean dead = false;
+    private PieceGenerator pieces = null;
+
+    /**
+     * Create a player
+     * @param id unique number for the connection
+     * @param out sends a message to the connection
+     */
+    public Player(int id, Consumer<String> out) {
+        this.id = id;
+        this.out = out;
+        this.name = "Player" + id;
+    }
+
+    /**
+     * Send a message to this player
+     * @param message the message
+     */
+    public void send(String message) {
+        out.accept(message);
+    }
+
+    /**
+     * Start a new game, dealing from a fresh generator seeded the same as every other player's in the channel
+     * @param seed the channel's seed
+     */
+    void startGame(long seed) {
+        score = 0;
+        lives = LIVES;
+        dead = false;
+        pieces = PieceGenerator.create(seed);
+    }
+
+    /**
+     * Forget the game, e.g. on leaving the channel, so no more pieces are dealt and nothing stale is reported elsewhere
+     */
+    void endGame() {
+        score = 0;
+        lives = LIVES;
+        dead = false;
+        pieces = null;
+    }
+
+    /**
+     * Get this player's next piece
+     * @return piece number
+     */
+    int nextPiece() {
+        return pieces.next();
+    }
+
+    boolean isPlaying() {
+        return pieces != null;
+    }
+
+    public int getId() { return id; }
+
+    public String getName() { return name; }
+
+    void setName(String name) { this.name = name; }
+
+    public Channel getChannel() { return channel; }
+
+    void setChannel(Channel channel) { this.channel = channel; }
+
+    int getScore() { return score; }
+
+    void setScore(int score) { this.score = score; }
+
+    int getLives() { return lives; }
+
+    void setLives(int lives) { this.lives = lives; }
+
+    boolean isDead() { return dead; }
+
+    void setDead() { this.dead = true; }
+
+    @Override
+    public String toString() {
+        return name + " (" + id + ")";
+    }
+}
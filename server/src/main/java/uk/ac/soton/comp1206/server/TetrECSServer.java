@@ -0,0 +1,131 @@
+package uk.ac.soton.comp1206.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.java_websocket.WebSocket;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * The TetrECSServer is a headless stand-in for the TetrECS multiplayer server, so the game can be played over a local
+ * network (run the game with -Dtetrecs.server=ws://localhost:9700) and the protocol can be load tested (see LoadTest).
+ *
+ * Connections are served by one selector thread accepting and reading sockets and a few decoder threads, one per core,
+ * each handling the messages of its share of the connections, rather than a thread per connection. A connection is
+ * only a socket and a Player, so thousands of clients in thousands of channels fit on one machine. The commands
+ * themselves are handled by the Lobby.
+ *
+ * Settings, as system properties: tetrecs.port (default 9700, or the first argument), tetrecs.hiscores (the hiscore
+ * file, default hiscores.txt), tetrecs.seed (fixes the channels' seeds, for repeatable tests) and tetrecs.pieces (how
+ * pieces are dealt, as in the game).
+ */
+public class TetrECSServer extends WebSocketServer {
+
+    private static final Logger logger = LogManager.getLogger(TetrECSServer.class);
+
+    public static final int DEFAULT_PORT = 9700;
+
+    /**
+     * Seconds without a pong before a connection is dropped
+     */
+    private static final int CONNECTION_LOST_TIMEOUT = 60;
+
+    private final Lobby lobby;
+
+    /**
+     * Create a server
+     * @param port port to listen on
+     * @param lobby the lobby handling commands
+     */
+    public TetrECSServer(int port, Lobby lobby) {
+        super(new InetSocketAddress(port), Runtime.getRuntime().availableProcessors());
+        this.lobby = lobby;
+        setReuseAddr(true);
+        setTcpNoDelay(true);
+        setConnectionLostTimeout(CONNECTION_LOST_TIMEOUT);
+    }
+
+    @Override
+    public void onStart() {
+        logger.info("Listening on port {}", getPort());
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        var player = lobby.connect(message -> send(conn, message));
+        conn.setAttachment(player);
+        logger.debug("{} connected from {}", player, conn.getRemoteSocketAddress());
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        Player player = conn.getAttachment();
+        logger.trace("{}: {}", player, message);
+        if (message.equals("QUIT")) {
+            conn.close();
+            return;
+        }
+        lobby.receive(player, message);
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        Player player = conn.getAttachment();
+        if (player != null) {
+            lobby.disconnect(player);
+            logger.debug("{} disconnected", player);
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        if (conn == null) {
+            logger.error("Server error: {}", ex.getMessage());
+        } else {
+            logger.warn("Error on {}: {}", conn.getRemoteSocketAddress(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Send a message, ignoring a connection that has just closed: whoever caused the message needn't care
+     */
+    private static void send(WebSocket conn, String message) {
+        try {
+            conn.send(message);
+        } catch (WebsocketNotConnectedException e) {
+            logger.trace("Not sent, connection closed: {}", message);
+        }
+    }
+
+    public Lobby getLobby() {
+        return lobby;
+    }
+
+    /**
+     * Start a server
+     * @param args optional port to listen on
+     */
+    public static void main(String[] args) {
+        var port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("tetrecs.port", DEFAULT_PORT);
+        var hiscores = new HiScores(Path.of(System.getProperty("tetrecs.hiscores", "hiscores.txt")));
+        var seed = Long.getLong("tetrecs.seed");
+        var seeds = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+
+        var server = new TetrECSServer(port, new Lobby(hiscores, seeds));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            logger.info("Stopped with {} players in {} channels", server.lobby.getPlayerCount(),
+                    server.lobby.getChannelCount());
+        }));
+        server.start();
+    }
+}
@@ -0,0 +1,129 @@
+package uk.ac.soton.comp1206.server;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Plays the protocol against a lobby, with each player's messages collected instead of sent
+ */
+public class LobbyTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Lobby lobby;
+
+    private final List<List<String>> received = new ArrayList<>();
+
+    @Before
+    public void createLobby() {
+        received.clear();
+        lobby = new Lobby(new HiScores(folder.getRoot().toPath().resolve("hiscores.txt")), new SplittableRandom(1));
+    }
+
+    private Player connect() {
+        var messages = new ArrayList<String>();
+        received.add(messages);
+        return lobby.connect(messages::add);
+    }
+
+    private String last(Player player) {
+        var messages = received.get(player.getId() - 1);
+        return messages.get(messages.size() - 1);
+    }
+
+    @Test
+    public void playersInAGameGetTheSamePieces() {
+        var host = connect();
+        var guest = connect();
+        lobby.receive(host, "CREATE game");
+        lobby.receive(guest, "JOIN game");
+        lobby.receive(host, "START");
+        for (var i = 0; i < 20; i++) {
+            lobby.receive(host, "PIECE");
+            lobby.receive(guest, "PIECE");
+            assertTrue(last(host).startsWith("PIECE "));
+            assertEquals(last(host), last(guest));
+        }
+    }
+
+    @Test
+    public void channelReopensAfterGameOver() {
+        var host = connect();
+        var guest = connect();
+        var late = connect();
+        lobby.receive(host, "CREATE game");
+        lobby.receive(guest, "JOIN game");
+        lobby.receive(host, "START");
+
+        lobby.receive(late, "LIST");
+        assertEquals("CHANNELS", last(late));
+        lobby.receive(late, "JOIN game");
+        assertTrue(last(late).startsWith("ERROR"));
+
+        lobby.receive(host, "DIE");
+        lobby.receive(guest, "DIE");
+        lobby.receive(late, "LIST");
+        assertEquals("CHANNELS game", last(late));
+        lobby.receive(late, "JOIN game");
+        lobby.receive(host, "START");
+        assertEquals("START", last(late));
+        lobby.receive(late, "PIECE");
+        assertTrue(last(late).startsWith("PIECE "));
+    }
+
+    @Test
+    public void failedJoinKeepsTheCurrentChannel() {
+        var host = connect();
+        var player = connect();
+        lobby.receive(host, "CREATE busy");
+        lobby.receive(host, "START");
+        lobby.receive(player, "CREATE mine");
+
+        lobby.receive(player, "JOIN busy");
+        assertEquals("ERROR Channel busy has already started", last(player));
+        assertFalse(received.get(player.getId() - 1).contains("PARTED"));
+        assertEquals("mine", player.getChannel().getName());
+        lobby.receive(player, "USERS");
+        assertEquals("USERS " + player.getName(), last(player));
+    }
+
+    @Test
+    public void leavingForgetsTheGame() {
+        var host = connect();
+        var guest = connect();
+        lobby.receive(host, "CREATE one");
+        lobby.receive(guest, "JOIN one");
+        lobby.receive(host, "START");
+        lobby.receive(guest, "SCORE 500");
+        lobby.receive(guest, "PART");
+        assertTrue(received.get(host.getId() - 1).contains("DIE " + guest.getName()));
+
+        lobby.receive(guest, "CREATE two");
+        lobby.receive(guest, "PIECE");
+        assertTrue(last(guest).startsWith("ERROR"));
+        lobby.receive(guest, "SCORES");
+        assertEquals("SCORES " + guest.getName() + ":0:3", last(guest));
+    }
+
+    @Test
+    public void hiScoresAreKept() {
+        var player = connect();
+        lobby.receive(player, "HISCORE <alice>:<300>");
+        lobby.receive(player, "HISCORE bob:400");
+        createLobby();
+        var again = connect();
+        lobby.receive(again, "HISCORES");
+        assertEquals("HISCORES bob:400\nalice:300", last(again));
+    }
+}
@@ -6,6 +6,8 @@ import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import uk.ac.soton.comp1206.game.Music;
+import uk.ac.soton.comp1206.game.SoundBank;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
 /**
@@ -45,6 +47,10 @@ public class App extends Application {
         instance = this;
         this.stage = stage;
 
+        //Decode every sound effect and open the music up front so none are loaded mid game
+        SoundBank.load();
+        Music.preload("menu.mp3", "end.wav");
+
         //Open game window
         openGame();
     }
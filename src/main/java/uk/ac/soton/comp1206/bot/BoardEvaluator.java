@@ -0,0 +1,306 @@
+package uk.ac.soton.comp1206.bot;
+
+import uk.ac.soton.comp1206.engine.Board;
+import uk.ac.soton.comp1206.engine.GamePiece;
+import uk.ac.soton.comp1206.engine.MoveGenerator;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The BoardEvaluator works out how good a board position is, caching the answer in a transposition table so that
+ * positions seen before (on an earlier turn, an earlier game, or by another playout) aren't worked out again.
+ *
+ * The features of a position are:
+ * <ul>
+ *     <li>fits: how many distinct placements there are over every piece</li>
+ *     <li>pieces: which pieces fit somewhere</li>
+ *     <li>fillable lines: how many rows and columns could still be completed, every empty cell in them being covered by
+ *     some placement</li>
+ *     <li>holes: how many empty cells are walled in on every side, where nothing but a Dot can go</li>
+ * </ul>
+ *
+ * A position is keyed by its occupancy bitboard, which holds the whole position because boards are at most 64 cells.
+ * Zobrist hashing spreads the keys over the table. The table is a fixed size, with two entries per bucket; when both
+ * are taken the entry from the oldest search is replaced. It is lock free: each entry is stored as the key XORed with
+ * its data alongside the data, so an entry torn by two threads writing at once fails the check and is simply a miss.
+ */
+public class BoardEvaluator {
+
+    /**
+     * Evaluators shared by every bot, one per board size, so positions are reused across games
+     */
+    private static final Map<Integer, BoardEvaluator> shared = new ConcurrentHashMap<>();
+
+    /**
+     * Number of entries in a shared table
+     */
+    private static final int SHARED_ENTRIES = 1 << 18;
+
+    /**
+     * One random key per cell, XORed together over the occupied cells to hash a position
+     */
+    private static final long[] ZOBRIST = new long[Board.MAX_CELLS];
+
+    static {
+        var random = new SplittableRandom(1206);
+        for (var i = 0; i < ZOBRIST.length; i++) {
+            ZOBRIST[i] = random.nextLong();
+        }
+    }
+
+    //layout of the packed features
+    private static final int FITS_SHIFT = 0;
+    private static final int HOLES_SHIFT = 16;
+    private static final int LINES_SHIFT = 24;
+    private static final int PIECES_SHIFT = 32;
+    private static final int GENERATION_SHIFT = 48;
+    private static final long VALID = 1L << 63;
+
+    /**
+     * Get the evaluator shared by every bot for boards of the given size
+     * @param cols number of columns
+     * @param rows number of rows
+     * @return shared evaluator
+     */
+    public static BoardEvaluator shared(int cols, int rows) {
+        return shared.computeIfAbsent(cols * 256 + rows, key -> new BoardEvaluator(cols, rows, SHARED_ENTRIES));
+    }
+
+    private final int cols;
+
+    private final int rows;
+
+    private final MoveGenerator generator;
+
+    private final long[] rowMasks;
+
+    private final long[] colMasks;
+
+    //each entry is two longs: the key XORed with the data, then the data
+    private final AtomicLongArray table;
+
+    private final int bucketMask;
+
+    //the current search, stored with each entry so old ones can be replaced first
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create an evaluator with its own table
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param entries number of positions the table can hold, a power of two
+     */
+    public BoardEvaluator(int cols, int rows, int entries) {
+        if (Integer.bitCount(entries) != 1 || entries < 2) {
+            throw new IllegalArgumentException("Table size must be a power of two: " + entries);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.generator = new MoveGenerator(cols, rows);
+        this.table = new AtomicLongArray(entries * 2);
+        this.bucketMask = entries / 2 - 1;
+
+        rowMasks = new long[rows];
+        colMasks = new long[cols];
+        for (var y = 0; y < rows; y++) {
+            for (var x = 0; x < cols; x++) {
+                rowMasks[y] |= 1L << (y * cols + x);
+                colMasks[x] |= 1L << (y * cols + x);
+            }
+        }
+    }
+
+    /**
+     * Hash a position
+     * @param occupancy occupancy bitboard
+     * @return Zobrist hash
+     */
+    public static long hash(long occupancy) {
+        long hash = 0L;
+        while (occupancy != 0L) {
+            hash ^= ZOBRIST[Long.numberOfTrailingZeros(occupancy)];
+            occupancy &= occupancy - 1;
+        }
+        return hash;
+    }
+
+    /**
+     * Start a new search. Entries stored from now on are kept in preference to those from earlier searches.
+     */
+    public void nextGeneration() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Get the features of a position, from the table if it has been seen before
+     * @param occupancy occupancy bitboard
+     * @return packed features, read with fits, holes, fillableLines and fittingPieces
+     */
+    public long features(long occupancy) {
+        int bucket = (int) (hash(occupancy) & bucketMask) * 4;
+        for (var slot = bucket; slot < bucket + 4; slot += 2) {
+            long data = table.getOpaque(slot + 1);
+            if ((data & VALID) != 0L && (table.getOpaque(slot) ^ data) == occupancy) {
+                hits.increment();
+                return data;
+            }
+        }
+        misses.increment();
+
+        long data = compute(occupancy) | VALID | ((long) (generation.get() & 0xff) << GENERATION_SHIFT);
+        int slot = replacementSlot(bucket);
+        table.setOpaque(slot, occupancy ^ data);
+        table.setOpaque(slot + 1, data);
+        return data;
+    }
+
+    /**
+     * Score a position: the more pieces and placements that fit and the more lines that can be finished the better,
+     * and holes count against it
+     * @param occupancy occupancy bitboard
+     * @return score
+     */
+    public int score(long occupancy) {
+        long features = features(occupancy);
+        return fits(features) + Integer.bitCount(fittingPieces(features)) * 20 + fillableLines(features) * 10 -
+                holes(features) * 30;
+    }
+
+    /**
+     * Choose which entry of a bucket to overwrite: an empty one, else the one from the oldest search
+     * @param bucket index of the bucket's first entry
+     * @return index of the entry to overwrite
+     */
+    private int replacementSlot(int bucket) {
+        long first = table.getOpaque(bucket + 1);
+        long second = table.getOpaque(bucket + 3);
+        if ((first & VALID) == 0L) {
+            return bucket;
+        }
+        if ((second & VALID) == 0L) {
+            return bucket + 2;
+        }
+        int current = generation.get() & 0xff;
+        int firstAge = (current - (int) (first >>> GENERATION_SHIFT)) & 0xff;
+        int secondAge = (current - (int) (second >>> GENERATION_SHIFT)) & 0xff;
+        return firstAge > secondAge ? bucket : bucket + 2;
+    }
+
+    /**
+     * Work out the features of a position
+     * @param occupancy occupancy bitboard
+     * @return packed features, without the valid or generation bits
+     */
+    private long compute(long occupancy) {
+        var moves = new int[generator.getMaxMoves()];
+        int fits = 0;
+        int pieces = 0;
+        long coverable = 0L;
+        for (var piece = 0; piece < GamePiece.PIECES; piece++) {
+            int count = generator.generate(occupancy, piece, true, moves);
+            for (var i = 0; i < count; i++) {
+                coverable |= generator.mask(piece, moves[i]);
+            }
+            if (count > 0) {
+                pieces |= 1 << piece;
+            }
+            fits += count;
+        }
+
+        int lines = 0;
+        for (var mask : rowMasks) {
+            if ((mask & ~occupancy & ~coverable) == 0L) {
+                lines++;
+            }
+        }
+        for (var mask : colMasks) {
+            if ((mask & ~occupancy & ~coverable) == 0L) {
+                lines++;
+            }
+        }
+
+        int holes = 0;
+        for (var y = 0; y < rows; y++) {
+            for (var x = 0; x < cols; x++) {
+                if (!filled(occupancy, x, y) && filled(occupancy, x - 1, y) && filled(occupancy, x + 1, y) &&
+                        filled(occupancy, x, y - 1) && filled(occupancy, x, y + 1)) {
+                    holes++;
+                }
+            }
+        }
+
+        return ((long) Math.min(fits, 0xffff) << FITS_SHIFT) | ((long) holes << HOLES_SHIFT) |
+                ((long) lines << LINES_SHIFT) | ((long) pieces << PIECES_SHIFT);
+    }
+
+    /**
+     * Check whether a cell is filled, counting the edges of the board as filled
+     */
+    private boolean filled(long occupancy, int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            return true;
+        }
+        return (occupancy & (1L << (y * cols + x))) != 0L;
+    }
+
+    /**
+     * Get the number of distinct placements over every piece
+     * @param features packed features
+     * @return number of placements
+     */
+    public static int fits(long features) {
+        return (int) (features >>> FITS_SHIFT) & 0xffff;
+    }
+
+    /**
+     * Get the number of empty cells walled in on every side
+     * @param features packed features
+     * @return number of holes
+     */
+    public static int holes(long features) {
+        return (int) (features >>> HOLES_SHIFT) & 0xff;
+    }
+
+    /**
+     * Get the number of rows and columns that could still be completed
+     * @param features packed features
+     * @return number of lines
+     */
+    public static int fillableLines(long features) {
+        return (int) (features >>> LINES_SHIFT) & 0xff;
+    }
+
+    /**
+     * Get which pieces fit somewhere
+     * @param features packed features
+     * @return bit per piece number
+     */
+    public static int fittingPieces(long features) {
+        return (int) (features >>> PIECES_SHIFT) & 0x7fff;
+    }
+
+    /**
+     * Get the number of lookups answered from the table
+     * @return hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of lookups that had to be worked out
+     * @return misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,286 @@
+package uk.ac.soton.comp1206.bot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.engine.GamePiece;
+import uk.ac.soton.comp1206.engine.MoveGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MonteCarloBot picks a move for a game by trying every placement of the current piece and the following piece
+ * (i.e. with and without a swap) in every distinct rotation, and scoring each one by random playouts: after the move, a
+ * handful of random pieces are played at random until the board fills up or the playout ends.
+ *
+ * Playouts run in rounds: each round plays every candidate move out the same number of times, one fork-join task per
+ * candidate, and rounds repeat until the time budget runs out. So however many candidates there are per core, they are
+ * compared on the same number of samples, and the quality of the answer grows with the budget and the number of cores. Playouts run on a copy of the occupancy
+ * bitboard, finding moves with the MoveGenerator and following the same clearing and scoring rules as the GameEngine.
+ * A playout that survives to the end is also credited with the BoardEvaluator's score for where it ended up, which is
+ * cached across playouts, turns and games.
+ *
+ * Used to soak test the game headless (see playBestMove) and to give the player hints.
+ */
+public class MonteCarloBot {
+
+    private static final Logger logger = LogManager.getLogger(MonteCarloBot.class);
+
+    /**
+     * Number of random pieces played after the candidate move in each playout
+     */
+    private static final int PLAYOUT_DEPTH = 8;
+
+    /**
+     * Score taken off a playout that gets stuck, standing in for the life the player would lose
+     */
+    private static final int STUCK_PENALTY = 500;
+
+    /**
+     * The evaluator's score for the final position is divided by this before it is added to a playout's score
+     */
+    private static final int POSITION_WEIGHT = 4;
+
+    /**
+     * Playouts of each candidate per round
+     */
+    static final int ROUND_PLAYOUTS = 4;
+
+    private final ForkJoinPool pool;
+
+    private final long budgetNanos;
+
+    private final long seed;
+
+    /**
+     * Create a bot running on the common fork-join pool
+     * @param budgetMillis time allowed to choose each move
+     */
+    public MonteCarloBot(long budgetMillis) {
+        this(ForkJoinPool.commonPool(), budgetMillis, System.nanoTime());
+    }
+
+    /**
+     * Create a bot
+     * @param pool pool to run playouts on
+     * @param budgetMillis time allowed to choose each move
+     * @param seed seed for the random playouts
+     */
+    public MonteCarloBot(ForkJoinPool pool, long budgetMillis, long seed) {
+        this.pool = pool;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.seed = seed;
+    }
+
+    /**
+     * Choose the best move for the current state of a game
+     * @param engine the game
+     * @return the best move, or null if neither piece fits anywhere
+     */
+    public Move bestMove(GameEngine engine) {
+        return bestMove(engine.snapshot());
+    }
+
+    /**
+     * Choose the best move for a snapshot of a game
+     * @param game the game, as it was
+     * @return the best move, or null if neither piece fits anywhere
+     */
+    public Move bestMove(GameEngine.Snapshot game) {
+        return bestMove(game.getCols(), game.getRows(), game.getOccupancy(), game.getCurrent(), game.getFollowing(),
+                game.getMultiplier());
+    }
+
+    /**
+     * Choose the best move for the given state
+     * @param cols number of columns on the board
+     * @param rows number of rows on the board
+     * @param occupancy occupancy bitboard of the board
+     * @param current the current piece number
+     * @param following the following piece number
+     * @param multiplier the current multiplier
+     * @return the best move, or null if neither piece fits anywhere
+     */
+    public Move bestMove(int cols, int rows, long occupancy, int current, int following, int multiplier) {
+        long deadline = System.nanoTime() + budgetNanos;
+        var generator = new MoveGenerator(cols, rows);
+        var evaluator = BoardEvaluator.shared(cols, rows);
+        evaluator.nextGeneration();
+
+        //every distinct legal placement of either piece
+        var candidates = new ArrayList<Candidate>();
+        var moves = new int[generator.getMaxMoves()];
+        for (var swap = 0; swap < 2; swap++) {
+            int piece = swap == 0 ? current : following;
+            int next = swap == 0 ? following : current;
+            int count = generator.generate(occupancy, piece, true, moves);
+            for (var i = 0; i < count; i++) {
+                int move = moves[i];
+                candidates.add(new Candidate(swap == 1, piece, next, generator.rotation(move), generator.x(move),
+                        generator.y(move), generator.mask(piece, move)));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        //every candidate gets a round before the deadline is checked, so there's always an answer
+        var randoms = new SplittableRandom[candidates.size()];
+        for (var i = 0; i < candidates.size(); i++) {
+            randoms[i] = new SplittableRandom(seed + i);
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(candidates.size());
+        do {
+            tasks.clear();
+            for (var i = 0; i < candidates.size(); i++) {
+                var candidate = candidates.get(i);
+                var random = randoms[i];
+                tasks.add(pool.submit(() -> candidate.evaluate(cols, rows, generator, evaluator, occupancy,
+                        multiplier, random)));
+            }
+            for (var task : tasks) {
+                task.join();
+            }
+        } while (System.nanoTime() < deadline);
+
+        Candidate best = null;
+        for (var candidate : candidates) {
+            if (best == null || candidate.mean() > best.mean()) {
+                best = candidate;
+            }
+        }
+
+        var move = new Move(best.swap, best.piece, best.rotation, best.x, best.y, best.mean(), best.playouts);
+        logger.debug("Best of {} moves: {}", candidates.size(), move);
+        return move;
+    }
+
+    /**
+     * Choose the best move for a game and play it, swapping and rotating as needed
+     * @param engine the game
+     * @return true if a move was played, false if nothing fits
+     */
+    public boolean playBestMove(GameEngine engine) {
+        var move = bestMove(engine);
+        if (move == null) {
+            return false;
+        }
+        return engine.playMove(move.isSwap(), move.getRotation(), move.getX(), move.getY());
+    }
+
+    /**
+     * Place a mask on a board and clear any full lines, following the GameEngine's rules
+     * @param state occupancy in [0], multiplier in [1], updated in place
+     * @param mask placement mask
+     * @param cols number of columns
+     * @param rows number of rows
+     * @return score for the placement
+     */
+    private static int place(long[] state, long mask, int cols, int rows) {
+        long occupancy = state[0] | mask;
+        int multiplier = (int) state[1];
+        long cleared = 0L;
+        int score = 0;
+
+        long row = (1L << cols) - 1;
+        for (var y = 0; y < rows; y++, row <<= cols) {
+            if ((occupancy & row) == row) {
+                cleared |= row;
+                score += cols * 10 * multiplier;
+            }
+        }
+        long column = 0L;
+        for (var y = 0; y < rows; y++) {
+            column |= 1L << (y * cols);
+        }
+        for (var x = 0; x < cols; x++, column <<= 1) {
+            if ((occupancy & column) == column) {
+                cleared |= column;
+                score += rows * 10 * multiplier;
+            }
+        }
+
+        state[0] = occupancy & ~cleared;
+        state[1] = cleared == 0L ? 1 : multiplier + 1;
+        return score;
+    }
+
+    /**
+     * A candidate move and the results of its playouts so far
+     */
+    private static class Candidate {
+
+        private final boolean swap;
+
+        private final int piece;
+
+        //the piece after this one, known for certain
+        private final int next;
+
+        private final int rotation;
+
+        private final int x;
+
+        private final int y;
+
+        private final long mask;
+
+        private double total = 0;
+
+        private int playouts = 0;
+
+        private Candidate(boolean swap, int piece, int next, int rotation, int x, int y, long mask) {
+            this.swap = swap;
+            this.piece = piece;
+            this.next = next;
+            this.rotation = rotation;
+            this.x = x;
+            this.y = y;
+            this.mask = mask;
+        }
+
+        private double mean() {
+            return playouts == 0 ? 0 : total / playouts;
+        }
+
+        /**
+         * Run one round of playouts
+         */
+        private void evaluate(int cols, int rows, MoveGenerator generator, BoardEvaluator evaluator, long occupancy,
+                              int multiplier, SplittableRandom random) {
+            var state = new long[2];
+            var legal = new int[generator.getMaxMoves()];
+            for (var i = 0; i < ROUND_PLAYOUTS; i++) {
+                state[0] = occupancy;
+                state[1] = multiplier;
+                int score = place(state, mask, cols, rows);
+
+                var stuck = false;
+                for (var depth = 0; depth < PLAYOUT_DEPTH && !stuck; depth++) {
+                    int piece = depth == 0 ? next : random.nextInt(GamePiece.PIECES);
+
+                    //play a random one of the piece's legal placements
+                    int count = generator.generate(state[0], piece, false, legal);
+                    if (count == 0) {
+                        score -= STUCK_PENALTY;
+                        stuck = true;
+                        continue;
+                    }
+                    score += place(state, generator.mask(piece, legal[random.nextInt(count)]), cols, rows);
+                }
+
+                if (!stuck) {
+                    score += evaluator.score(state[0]) / POSITION_WEIGHT;
+                }
+
+                total += score;
+                playouts++;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package uk.ac.soton.comp1206.bot;
+
+/**
+ * A move the bot has chosen: whether to swap the current and following pieces first, which rotation to play the piece
+ * in, and where to centre it.
+ */
+public class Move {
+
+    /**
+     * Whether the current and following pieces are swapped before playing
+     */
+    private final boolean swap;
+
+    /**
+     * The piece to be played, after any swap
+     */
+    private final int piece;
+
+    /**
+     * The rotation to play the piece in, 0 to 3
+     */
+    private final int rotation;
+
+    /**
+     * The column to centre the piece on
+     */
+    private final int x;
+
+    /**
+     * The row to centre the piece on
+     */
+    private final int y;
+
+    /**
+     * The estimated value of the move, the higher the better
+     */
+    private final double value;
+
+    /**
+     * The number of playouts the estimate is based on
+     */
+    private final int playouts;
+
+    /**
+     * Create a new move
+     * @param swap whether to swap pieces first
+     * @param piece the piece to be played
+     * @param rotation the rotation to play it in
+     * @param x column
+     * @param y row
+     * @param value estimated value
+     * @param playouts number of playouts behind the estimate
+     */
+    public Move(boolean swap, int piece, int rotation, int x, int y, double value, int playouts) {
+        this.swap = swap;
+        this.piece = piece;
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+        this.value = value;
+        this.playouts = playouts;
+    }
+
+    public boolean isSwap() { return swap; }
+
+    public int getPiece() { return piece; }
+
+    /**
+     * Get the rotation to play the piece in. This is the piece's absolute rotation, not a number of turns from where
+     * it is now.
+     * @return rotation, 0 to 3
+     */
+    public int getRotation() { return rotation; }
+
+    public int getX() { return x; }
+
+    public int getY() { return y; }
+
+    public double getValue() { return value; }
+
+    public int getPlayouts() { return playouts; }
+
+    @Override
+    public String toString() {
+        return (swap ? "swap, " : "") + "rotation " + rotation + " at " + x + "," + y + " (value " +
+                String.format("%.1f", value) + " from " + playouts + " playouts)";
+    }
+}
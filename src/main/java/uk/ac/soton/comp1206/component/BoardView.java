@@ -0,0 +1,64 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.scene.Node;
+import uk.ac.soton.comp1206.event.CellClickedListener;
+import uk.ac.soton.comp1206.event.RightClickedListener;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.util.Set;
+
+/**
+ * A BoardView is anything that can display a Grid for the player to play on. Scenes talk to the board through this
+ * interface, so they work the same with a GameBoard (one GameBlock node per cell) or a CanvasGameBoard (the whole grid
+ * drawn on one canvas).
+ *
+ * The renderer is picked with the tetrecs.renderer system property: "blocks" for a GameBoard, anything else for a
+ * CanvasGameBoard.
+ */
+public interface BoardView {
+
+    /**
+     * Create a board for the given grid, using the renderer picked by the tetrecs.renderer system property
+     * @param grid linked grid
+     * @param width the visual width
+     * @param height the visual height
+     * @return the board
+     */
+    static BoardView create(Grid grid, double width, double height) {
+        if ("blocks".equals(System.getProperty("tetrecs.renderer"))) {
+            return new GameBoard(grid, width, height);
+        }
+        return new CanvasGameBoard(grid, width, height);
+    }
+
+    /**
+     * Get the node to add to the scene graph
+     * @return node
+     */
+    Node getNode();
+
+    /**
+     * Set the listener to handle an event when a cell is clicked
+     * @param listener listener to add
+     */
+    void setOnCellClick(CellClickedListener listener);
+
+    /**
+     * Set the listener to handle the board being right clicked
+     * @param listener listener to add
+     */
+    void setRightClickedListener(RightClickedListener listener);
+
+    /**
+     * Highlight the cell the keyboard is on, removing the highlight from the previous one
+     * @param x column
+     * @param y row
+     */
+    void highlight(int x, int y);
+
+    /**
+     * Flash each of the given cells then fade them away
+     * @param coordinates cells to fade
+     */
+    void fadeOut(Set<GameBlockCoordinate> coordinates);
+}
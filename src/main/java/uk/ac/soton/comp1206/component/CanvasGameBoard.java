@@ -0,0 +1,332 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.event.CellClickedListener;
+import uk.ac.soton.comp1206.event.RightClickedListener;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.util.Set;
+
+/**
+ * A CanvasGameBoard is a visual component to represent the GameBoard, drawing the whole grid onto a single Canvas.
+ *
+ * Unlike the GameBoard there is no node per cell: mouse events are mapped to a cell from their coordinates, and the
+ * board listens to the Grid directly, repainting only the cells that changed, each at most once per pulse. This keeps
+ * the scene graph to one node however big the grid is.
+ *
+ * Like the GameBoard it can hold an internal grid of it's own or be linked to an external grid, and should not
+ * contain game logic.
+ */
+public class CanvasGameBoard extends StackPane implements BoardView {
+
+    private static final Logger logger = LogManager.getLogger(CanvasGameBoard.class);
+
+    /**
+     * How much a fading cell's opacity drops each frame
+     */
+    private static final double FADE_STEP = 0.1;
+
+    /**
+     * Number of columns in the board
+     */
+    private final int cols;
+
+    /**
+     * Number of rows in the board
+     */
+    private final int rows;
+
+    /**
+     * The visual width of the board
+     */
+    private final double width;
+
+    /**
+     * The visual height of the board
+     */
+    private final double height;
+
+    /**
+     * The width of each cell
+     */
+    private final double cellWidth;
+
+    /**
+     * The height of each cell
+     */
+    private final double cellHeight;
+
+    /**
+     * The grid this board represents
+     */
+    final Grid grid;
+
+    /**
+     * The canvas every cell is drawn on
+     */
+    private Canvas canvas;
+
+    private CellClickedListener cellClickedListener;
+
+    private RightClickedListener rightClickedListener;
+
+    //cell highlighted by the mouse or keyboard, or -1 for none
+    private int highlighted = -1;
+
+    //cell with the reference circle drawn on it, or -1 for none
+    private int circled = -1;
+
+    //green flash on cleared cells
+    private CellAnimator fades;
+
+    //cells waiting to be repainted on the next pulse
+    private DirtyCells dirty;
+
+    /**
+     * Create a new CanvasGameBoard, based off a given grid, with a visual width and height.
+     * @param grid linked grid
+     * @param width the visual width
+     * @param height the visual height
+     */
+    public CanvasGameBoard(Grid grid, double width, double height) {
+        this.cols = grid.getCols();
+        this.rows = grid.getRows();
+        this.width = width;
+        this.height = height;
+        this.cellWidth = width / cols;
+        this.cellHeight = height / rows;
+        this.grid = grid;
+
+        //Build the board
+        build();
+    }
+
+    /**
+     * Create a new CanvasGameBoard with it's own internal grid, specifying the number of columns and rows, along with
+     * the visual width and height.
+     *
+     * @param cols number of columns for internal grid
+     * @param rows number of rows for internal grid
+     * @param width the visual width
+     * @param height the visual height
+     */
+    public CanvasGameBoard(int cols, int rows, double width, double height) {
+        this(new Grid(cols, rows), width, height);
+    }
+
+    /**
+     * Build the board: one canvas, painted in full once, then kept up to date cell by cell
+     */
+    protected void build() {
+        logger.info("Building canvas grid: {} x {}", cols, rows);
+
+        setMaxWidth(width);
+        setMaxHeight(height);
+
+        canvas = new Canvas(width, height);
+        getChildren().add(canvas);
+
+        dirty = new DirtyCells(this::paintCell);
+        fades = new CellAnimator(cols * rows, FADE_STEP, (cell, opacity) -> paintCell(cell));
+
+        for (var y = 0; y < rows; y++) {
+            for (var x = 0; x < cols; x++) {
+                paintCell(x, y);
+            }
+        }
+
+        //repaint whichever cells the model changes, once they have all been written
+        grid.addCellChangedListener((x, y, value) -> dirty.mark(y * cols + x));
+
+        canvas.setOnMouseClicked(this::canvasClicked);
+        canvas.setOnMouseMoved(this::canvasMoved);
+        canvas.setOnMouseExited(event -> setHighlighted(-1));
+
+        this.setOnMouseClicked(event -> rightClick(event));
+    }
+
+    @Override
+    public Node getNode() {
+        return this;
+    }
+
+    /**
+     * Get the grid this board represents
+     * @return grid
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Find the cell under a point on the canvas
+     * @param x x coordinate on the canvas
+     * @param y y coordinate on the canvas
+     * @return cell index, or -1 if the point is outside the grid
+     */
+    private int cellAt(double x, double y) {
+        int col = (int) (x / cellWidth);
+        int row = (int) (y / cellHeight);
+        if (x < 0 || y < 0 || col >= cols || row >= rows) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+
+    /**
+     * Triggered when the canvas is clicked. Call the attached listener with the cell under the mouse.
+     * @param event mouse event
+     */
+    private void canvasClicked(MouseEvent event) {
+        int cell = cellAt(event.getX(), event.getY());
+        if (cell < 0) {
+            return;
+        }
+        logger.debug("Cell clicked: ({},{})", cell % cols, cell / cols);
+
+        if (cellClickedListener != null && event.getButton() == MouseButton.PRIMARY) {
+            cellClickedListener.cellClicked(cell % cols, cell / cols);
+        }
+    }
+
+    /**
+     * Highlight the cell under the mouse as it moves
+     * @param event mouse event
+     */
+    private void canvasMoved(MouseEvent event) {
+        setHighlighted(cellAt(event.getX(), event.getY()));
+    }
+
+    @Override
+    public void setOnCellClick(CellClickedListener listener) {
+        this.cellClickedListener = listener;
+    }
+
+    @Override
+    public void setRightClickedListener(RightClickedListener listener) { this.rightClickedListener = listener; }
+
+    private void rightClick(MouseEvent event) {
+        if (rightClickedListener != null && event.getButton() == MouseButton.SECONDARY) {
+            rightClickedListener.rightClick(event);
+        }
+    }
+
+    @Override
+    public void highlight(int x, int y) {
+        setHighlighted(y * cols + x);
+    }
+
+    /**
+     * Move the highlight to another cell, repainting only the two cells involved
+     * @param cell cell index, or -1 for none
+     */
+    private void setHighlighted(int cell) {
+        if (cell == highlighted) {
+            return;
+        }
+        int previous = highlighted;
+        highlighted = cell;
+        if (previous >= 0) {
+            dirty.mark(previous);
+        }
+        if (cell >= 0) {
+            dirty.mark(cell);
+        }
+    }
+
+    /**
+     * Draw a transparent white reference circle on a cell
+     * @param x column
+     * @param y row
+     */
+    public void circle(int x, int y) {
+        circled = y * cols + x;
+        dirty.mark(circled);
+    }
+
+    /**
+     * Start each given cell flashing green then fading away
+     * @param coordinates cells to fade
+     */
+    @Override
+    public void fadeOut(Set<GameBlockCoordinate> coordinates) {
+        for (GameBlockCoordinate coordinate : coordinates) {
+            fades.start(coordinate.getY() * cols + coordinate.getX());
+        }
+    }
+
+    /**
+     * Paint one cell of the canvas
+     * @param cell cell index
+     */
+    private void paintCell(int cell) {
+        paintCell(cell % cols, cell / cols);
+    }
+
+    /**
+     * Paint one cell of the canvas: its colour, then any flash, highlight or circle on top
+     * @param x column
+     * @param y row
+     */
+    private void paintCell(int x, int y) {
+        var gc = canvas.getGraphicsContext2D();
+        double left = x * cellWidth;
+        double top = y * cellHeight;
+        int cell = y * cols + x;
+        int value = grid.get(x, y);
+
+        //Clear
+        gc.clearRect(left, top, cellWidth, cellHeight);
+
+        //Fill: empty cells are see-through black, others opaque in their colour
+        if (value == 0) {
+            gc.setFill(Color.BLACK);
+            gc.setGlobalAlpha(0.4);
+        } else {
+            gc.setFill(GameBlock.COLOURS[value]);
+            gc.setGlobalAlpha(1);
+        }
+        gc.fillRect(left, top, cellWidth, cellHeight);
+
+        //Border
+        gc.setStroke(Color.WHITE);
+        gc.strokeRect(left, top, cellWidth, cellHeight);
+
+        double fade = fades.opacity(cell);
+        if (fade > 0) {
+            fill(gc, Color.GREEN, fade, left, top);
+        }
+        if (cell == highlighted) {
+            fill(gc, Color.WHITE, 0.4, left, top);
+        }
+        if (cell == circled) {
+            gc.setFill(Color.WHITE);
+            gc.setGlobalAlpha(0.5);
+            double size = Math.min(cellWidth, cellHeight) / 2;
+            gc.fillOval(left + (cellWidth - size) / 2, top + (cellHeight - size) / 2, size, size);
+        }
+        gc.setGlobalAlpha(1);
+    }
+
+    /**
+     * Tint a whole cell
+     * @param gc graphics context of the canvas
+     * @param colour colour of the tint
+     * @param alpha opacity of the tint
+     * @param left left edge of the cell
+     * @param top top edge of the cell
+     */
+    private void fill(GraphicsContext gc, Color colour, double alpha, double left, double top) {
+        gc.setFill(colour);
+        gc.setGlobalAlpha(alpha);
+        gc.fillRect(left, top, cellWidth, cellHeight);
+    }
+}
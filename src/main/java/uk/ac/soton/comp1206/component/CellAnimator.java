@@ -0,0 +1,104 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Drives the fade out of cleared cells for a whole board from a single AnimationTimer.
+ *
+ * The opacity of each cell's effect is kept in an array indexed by cell, alongside a packed list of the cells that are
+ * still animating, so each frame only touches the cells that are fading and nothing is allocated once the board is
+ * built. The timer only runs while something is fading. Must only be used from the FX thread.
+ */
+class CellAnimator {
+
+    /**
+     * Paints a cell with its effect at the given opacity
+     */
+    interface Painter {
+
+        /**
+         * Paint a cell
+         * @param cell cell index
+         * @param opacity opacity of the effect, 0 once it has finished
+         */
+        void paint(int cell, double opacity);
+    }
+
+    private final Painter painter;
+
+    /**
+     * How much the opacity drops each frame
+     */
+    private final double step;
+
+    //opacity of the effect on each cell, 0 when there is none
+    private final double[] opacity;
+
+    //the cells still animating, in the first count entries
+    private final int[] active;
+
+    private int count = 0;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            frame();
+        }
+    };
+
+    /**
+     * Create a new animator
+     * @param cells number of cells on the board
+     * @param step how much the opacity drops each frame
+     * @param painter paints a cell with its effect
+     */
+    CellAnimator(int cells, double step, Painter painter) {
+        this.opacity = new double[cells];
+        this.active = new int[cells];
+        this.step = step;
+        this.painter = painter;
+    }
+
+    /**
+     * Start a cell's effect at full opacity, restarting it if it is already running
+     * @param cell cell index
+     */
+    void start(int cell) {
+        if (opacity[cell] <= 0) {
+            active[count++] = cell;
+        }
+        opacity[cell] = 1;
+        painter.paint(cell, 1);
+        timer.start();
+    }
+
+    /**
+     * Get the current opacity of a cell's effect
+     * @param cell cell index
+     * @return opacity, 0 if it has no effect
+     */
+    double opacity(int cell) {
+        return opacity[cell];
+    }
+
+    /**
+     * Move every running effect on by one frame, dropping those that have finished
+     */
+    private void frame() {
+        var i = 0;
+        while (i < count) {
+            int cell = active[i];
+            opacity[cell] = Math.max(0, opacity[cell] - step);
+            painter.paint(cell, opacity[cell]);
+            if (opacity[cell] == 0) {
+                //move the last running cell into this slot
+                active[i] = active[--count];
+            } else {
+                i++;
+            }
+        }
+        if (count == 0) {
+            timer.stop();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Collects the cells of a board that need repainting and repaints each of them once on the next pulse, however many
+ * times they changed in between. Placing a piece and clearing lines can write the same cell several times, but it is
+ * only drawn once.
+ *
+ * Cells are indexed y * cols + x, the same as the Board bitboard, so the dirty set is a single long. Must only be used
+ * from the FX thread.
+ */
+class DirtyCells {
+
+    /**
+     * Paints a cell, given its index
+     */
+    private final IntConsumer painter;
+
+    /**
+     * Runs the flush on the next pulse, then stops until something else is marked
+     */
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+
+    //cells waiting to be repainted
+    private long dirty = 0L;
+
+    /**
+     * Create a new dirty set
+     * @param painter paints the cell with the given index
+     */
+    DirtyCells(IntConsumer painter) {
+        this.painter = painter;
+    }
+
+    /**
+     * Mark a cell as needing to be repainted on the next pulse
+     * @param cell cell index
+     */
+    void mark(int cell) {
+        if (dirty == 0L) {
+            timer.start();
+        }
+        dirty |= 1L << cell;
+    }
+
+    /**
+     * Repaint every dirty cell now
+     */
+    void flush() {
+        timer.stop();
+        long cells = dirty;
+        dirty = 0L;
+        while (cells != 0L) {
+            int cell = Long.numberOfTrailingZeros(cells);
+            cells &= cells - 1;
+            painter.accept(cell);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package uk.ac.soton.comp1206.component;
 
-import javafx.animation.AnimationTimer;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.value.ObservableValue;
@@ -19,7 +18,7 @@ import org.apache.logging.log4j.Logger;
  *
  * Displays an empty square (when the value is 0) or a coloured square depending on value.
  *
- * The GameBlock value should be bound to a corresponding block in the Grid model.
+ * The GameBlock value should be bound to a corresponding block in the Grid model, or set by its GameBoard.
  */
 public class GameBlock extends Canvas {
 
@@ -67,8 +66,6 @@ public class GameBlock extends Canvas {
      */
     private final IntegerProperty value = new SimpleIntegerProperty(0);
 
-    private double opacity = 1;
-
     /**
      * Create a new single Game Block
      * @param gameBoard the board this block belongs to
@@ -183,6 +180,14 @@ public class GameBlock extends Canvas {
         return this.value.get();
     }
 
+    /**
+     * Set the value of this block, repainting it if it changed
+     * @param value the new value
+     */
+    public void setValue(int value) {
+        this.value.set(value);
+    }
+
     /**
      * Bind the value of this block to another property. Used to link the visual block to a corresponding block in the Grid.
      * @param input property to bind the value to
@@ -220,35 +225,17 @@ public class GameBlock extends Canvas {
     }
 
     /**
-     * flashes the block green then fades away
-     */
-    public void fadeOut() {
-        var timer = new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                doHandle();
-            }
-
-            private void doHandle() {
-                if (opacity <= 0) {
-                    stop();
-                    paint();
-                } else {
-                    var gc = getGraphicsContext2D();
-
-                    opacity -= 0.1;
-
-                    logger.info(opacity);
-
-                    gc.setFill(Color.GREEN);
-                    //opacity goes from opaque to transparent
-                    gc.setGlobalAlpha(opacity);
-                    gc.fillRect(0, 0, width, height);
-                }
-            }
-        };
-        timer.start();
-        //reset opacity
-        opacity = 1;
+     * paints the block with a green flash over it, used while it fades away after being cleared
+     * @param opacity opacity of the flash, 0 to paint the block normally
+     */
+    public void paintFade(double opacity) {
+        paint();
+        if (opacity > 0) {
+            var gc = getGraphicsContext2D();
+            gc.setFill(Color.GREEN);
+            //opacity goes from opaque to transparent
+            gc.setGlobalAlpha(opacity);
+            gc.fillRect(0, 0, width, height);
+        }
     }
 }
@@ -0,0 +1,125 @@
+package uk.ac.soton.comp1206.component;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read only Set of GameBlockCoordinates backed by an occupancy mask, laid out the same way as the Board bitboard
+ * (bit y * cols + x).
+ *
+ * One GameBlockCoordinate is created per cell when the set is built and reused from then on, and the set itself is
+ * reused by changing its mask, so handing a set of cleared blocks to a listener does not allocate. Because of this the
+ * contents are only valid until the mask is next changed; listeners should not keep hold of the set.
+ */
+public class GameBlockCoordinateSet extends AbstractSet<GameBlockCoordinate> {
+
+    /**
+     * Number of columns in the grid the mask refers to
+     */
+    private final int cols;
+
+    /**
+     * One coordinate per cell, indexed by bit
+     */
+    private final GameBlockCoordinate[] coordinates;
+
+    /**
+     * The iterator handed out by iterator(), reset on each call
+     */
+    private final MaskIterator iterator = new MaskIterator();
+
+    /**
+     * The cells currently in this set
+     */
+    private long mask = 0L;
+
+    /**
+     * Create a new empty coordinate set for a grid of the given size
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public GameBlockCoordinateSet(int cols, int rows) {
+        this.cols = cols;
+        this.coordinates = new GameBlockCoordinate[cols * rows];
+        for (var y = 0; y < rows; y++) {
+            for (var x = 0; x < cols; x++) {
+                coordinates[y * cols + x] = new GameBlockCoordinate(x, y);
+            }
+        }
+    }
+
+    /**
+     * Change the cells held in this set
+     * @param mask occupancy bits of the cells
+     */
+    public void setMask(long mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Get the cells held in this set
+     * @return occupancy bits of the cells
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * Iterate over the coordinates in this set. The same iterator is reused on every call, so only one iteration can
+     * be in progress at a time.
+     * @return iterator over the coordinates
+     */
+    @Override
+    public Iterator<GameBlockCoordinate> iterator() {
+        iterator.remaining = mask;
+        return iterator;
+    }
+
+    /**
+     * Get the number of coordinates in this set
+     * @return size
+     */
+    @Override
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * Check whether a coordinate is in this set
+     * @param o coordinate to look for
+     * @return true if present
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof GameBlockCoordinate)) return false;
+        var coordinate = (GameBlockCoordinate) o;
+        int x = coordinate.getX();
+        int y = coordinate.getY();
+        if (x < 0 || x >= cols || y < 0 || y * cols + x >= coordinates.length) return false;
+        return (mask & (1L << (y * cols + x))) != 0L;
+    }
+
+    /**
+     * Walks the set bits of the mask, lowest first
+     */
+    private class MaskIterator implements Iterator<GameBlockCoordinate> {
+
+        private long remaining;
+
+        @Override
+        public boolean hasNext() {
+            return remaining != 0L;
+        }
+
+        @Override
+        public GameBlockCoordinate next() {
+            if (remaining == 0L) {
+                throw new NoSuchElementException();
+            }
+            int index = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            return coordinates[index];
+        }
+    }
+}
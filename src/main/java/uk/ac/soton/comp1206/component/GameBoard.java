@@ -1,13 +1,13 @@
 package uk.ac.soton.comp1206.component;
 
-import javafx.scene.input.KeyCode;
-import javafx.scene.input.KeyEvent;
+import javafx.scene.Node;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.BlockClickedListener;
+import uk.ac.soton.comp1206.event.CellClickedListener;
 import uk.ac.soton.comp1206.event.RightClickedListener;
 import uk.ac.soton.comp1206.game.Grid;
 
@@ -22,8 +22,10 @@ import java.util.Set;
  *
  * The GameBoard is only a visual representation and should not contain game logic or model logic in it, which should
  * take place in the Grid.
+ *
+ * Each cell is its own GameBlock node; see CanvasGameBoard for a board drawn on a single canvas.
  */
-public class GameBoard extends GridPane {
+public class GameBoard extends GridPane implements BoardView {
 
     private static final Logger logger = LogManager.getLogger(GameBoard.class);
 
@@ -62,11 +64,19 @@ public class GameBoard extends GridPane {
      */
     private BlockClickedListener blockClickedListener;
 
+    private CellClickedListener cellClickedListener;
+
     private RightClickedListener rightClickedListener;
 
     //handles WASD block highlighting logic
     private GameBlock previousBlock;
 
+    //blocks waiting to be updated from the grid on the next pulse
+    private DirtyCells dirty;
+
+    //green flash on cleared blocks, driven for the whole board by one timer
+    private CellAnimator fades;
+
     /**
      * Create a new GameBoard, based off a given grid, with a visual width and height.
      * @param grid linked grid
@@ -126,6 +136,9 @@ public class GameBoard extends GridPane {
         setGridLinesVisible(true);
 
         blocks = new GameBlock[cols][rows];
+        dirty = new DirtyCells(this::updateBlock);
+        fades = new CellAnimator(cols * rows, 0.1,
+                (cell, opacity) -> blocks[cell % cols][cell / cols].paintFade(opacity));
 
         for(var y = 0; y < rows; y++) {
             for (var x = 0; x < cols; x++) {
@@ -133,6 +146,9 @@ public class GameBoard extends GridPane {
             }
         }
 
+        //update blocks from the grid once per pulse, rather than on every write
+        grid.addCellChangedListener((x, y, value) -> dirty.mark(y * cols + x));
+
         this.setOnMouseClicked(event -> rightClick(event));
 
         //handles WASD logic
@@ -157,8 +173,8 @@ public class GameBoard extends GridPane {
         //Add to our block directory
         blocks[x][y] = block;
 
-        //Link the GameBlock component to the corresponding value in the Grid
-        block.bind(grid.getGridProperty(x,y));
+        //Start the GameBlock component off with the corresponding value in the Grid
+        block.setValue(grid.get(x,y));
 
         //Add a mouse click handler to the block to trigger GameBoard blockClicked method
         block.setOnMouseClicked((e) -> blockClicked(e, block));
@@ -172,6 +188,16 @@ public class GameBoard extends GridPane {
         return block;
     }
 
+    /**
+     * Copy the value of a dirty cell from the grid to its block
+     * @param cell cell index
+     */
+    private void updateBlock(int cell) {
+        int x = cell % cols;
+        int y = cell / cols;
+        blocks[x][y].setValue(grid.get(x, y));
+    }
+
     /**
      * Set the listener to handle an event when a block is clicked
      * @param listener listener to add
@@ -180,19 +206,33 @@ public class GameBoard extends GridPane {
         this.blockClickedListener = listener;
     }
 
+    @Override
+    public void setOnCellClick(CellClickedListener listener) {
+        this.cellClickedListener = listener;
+    }
+
+    @Override
+    public Node getNode() {
+        return this;
+    }
+
     /**
-     * Triggered when a block is clicked. Call the attached listener.
+     * Triggered when a block is clicked. Call the attached listeners.
      * @param event mouse event
      * @param block block clicked on
      */
     private void blockClicked(MouseEvent event, GameBlock block) {
-        logger.info("Block clicked: {}", block);
+        logger.debug("Block clicked: {}", block);
 
         if(blockClickedListener != null && event.getButton() == MouseButton.PRIMARY) {
             blockClickedListener.blockClicked(block);
         }
+        if(cellClickedListener != null && event.getButton() == MouseButton.PRIMARY) {
+            cellClickedListener.cellClicked(block.getX(), block.getY());
+        }
     }
 
+    @Override
     public void setRightClickedListener(RightClickedListener listener) { this.rightClickedListener = listener; }
 
     private void rightClick(MouseEvent event) {
@@ -207,16 +247,19 @@ public class GameBoard extends GridPane {
         block.hover();
     }
 
+    @Override
+    public void highlight(int x, int y) {
+        currentBlock(getBlock(x, y));
+    }
+
     /**
-     * for each coordinate, call the fadeOut() method on the respective block
+     * flash each of the given blocks green then fade them away. The game has already emptied the cells in the grid.
      * @param coordinates
      */
+    @Override
     public void fadeOut(Set<GameBlockCoordinate> coordinates) {
         for (GameBlockCoordinate coordinate: coordinates) {
-            grid.set(coordinate.getX(), coordinate.getY(), 0);
-            var block = getBlock(coordinate.getX(), coordinate.getY());
-            block.fadeOut();
-            grid.set(coordinate.getX(), coordinate.getY(), 0);
+            fades.start(coordinate.getY() * cols + coordinate.getX());
         }
     }
 }
@@ -5,9 +5,12 @@ import javafx.scene.input.MouseEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.LeftClickListener;
-import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.engine.GamePiece;
 
-public class PieceBoard extends GameBoard {
+/**
+ * A 3x3 board showing a single piece, drawn on one canvas
+ */
+public class PieceBoard extends CanvasGameBoard {
 
     private static final Logger logger = LogManager.getLogger(PieceBoard.class);
 
@@ -28,7 +31,7 @@ public class PieceBoard extends GameBoard {
      * sets display of next piece
      */
     public void setDisplayPiece(GamePiece piece) {
-        logger.info("Displaying current piece");
+        logger.debug("Displaying piece {}", piece);
 
         //clear the previous piece
         for (int i=0; i < grid.getCols(); i++) {
@@ -68,7 +71,7 @@ public class PieceBoard extends GameBoard {
      * draw circle in middle of piece board
      */
     public void displayCentreCircle() {
-        getBlock(1, 1).circle();
+        circle(1, 1);
     }
 
 }
@@ -0,0 +1,74 @@
+package uk.ac.soton.comp1206.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Pieces are dealt from a shuffled bag holding one of every piece; when the bag is empty a new one is shuffled. Every
+ * piece turns up once in each run of GamePiece.PIECES, so there are no droughts, and the same piece can't come up more
+ * than twice in a row (at the end of one bag and the start of the next).
+ */
+public class BagPieceGenerator implements PieceGenerator {
+
+    private final long seed;
+
+    private final SplittableRandom random;
+
+    private final int[] bag = new int[GamePiece.PIECES];
+
+    //index of the next piece to deal, bag.length when the bag is empty
+    private int next = GamePiece.PIECES;
+
+    /**
+     * Create a generator
+     * @param seed seed
+     */
+    public BagPieceGenerator(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        for (var i = 0; i < bag.length; i++) {
+            bag[i] = i;
+        }
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public int next() {
+        if (next == bag.length) {
+            shuffle();
+        }
+        return bag[next++];
+    }
+
+    /**
+     * Deals whole bags at a time where it can
+     */
+    @Override
+    public void fill(int[] pieces, int from, int to) {
+        while (from < to) {
+            if (next == bag.length) {
+                shuffle();
+            }
+            int count = Math.min(to - from, bag.length - next);
+            System.arraycopy(bag, next, pieces, from, count);
+            next += count;
+            from += count;
+        }
+    }
+
+    /**
+     * Shuffle the bag (Fisher-Yates) and start dealing from the top
+     */
+    private void shuffle() {
+        for (var i = bag.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = bag[i];
+            bag[i] = bag[j];
+            bag[j] = swap;
+        }
+        next = 0;
+    }
+}
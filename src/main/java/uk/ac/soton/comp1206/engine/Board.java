@@ -0,0 +1,313 @@
+package uk.ac.soton.comp1206.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The Board is the pure Java model of a game board, used by the GameEngine. It has no dependency on JavaFX so it can be
+ * run headless, for example by bots or simulations.
+ *
+ * The state is held as a bitboard: one bit per cell in a single long for occupancy (cell index = y * cols + x) and a
+ * compact byte per cell for the colour. Checking and placing pieces uses the placement masks from the PieceTable, and
+ * finding full lines uses a precomputed mask per row and column.
+ *
+ * Subclasses can override cellChanged to be told about every cell that is written, which is how the Grid keeps its
+ * bindable view in step.
+ */
+public class Board {
+
+    /**
+     * Per-cell tracing, off unless the trace loggers are turned on
+     */
+    private static final Logger trace = LogManager.getLogger("uk.ac.soton.comp1206.trace.Board");
+
+    /**
+     * The number of columns in this board
+     */
+    private final int cols;
+
+    /**
+     * The number of rows in this board
+     */
+    private final int rows;
+
+    /**
+     * The largest number of cells a board can hold, one per bit of the occupancy bitboard
+     */
+    public static final int MAX_CELLS = Long.SIZE;
+
+    /**
+     * One bit per cell, set when the cell holds a block
+     */
+    private long occupancy = 0L;
+
+    /**
+     * The colour value of every cell, indexed the same way as the occupancy bits
+     */
+    private final byte[] colours;
+
+    /**
+     * Placement masks for every piece, rotation and centre cell of a board this size
+     */
+    private final long[] placements;
+
+    /**
+     * The occupancy bits making up each row
+     */
+    private final long[] rowMasks;
+
+    /**
+     * The occupancy bits making up each column
+     */
+    private final long[] colMasks;
+
+    /**
+     * The colour the next placed piece will be painted with
+     */
+    private int colour = 1;
+
+    /**
+     * Create a new empty Board with the specified number of columns and rows
+     * @param cols number of columns
+     * @param rows number of rows
+     * @throws IllegalArgumentException if the board would have more than MAX_CELLS cells
+     */
+    public Board(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+
+        if (cols * rows > MAX_CELLS) {
+            throw new IllegalArgumentException("Board of " + cols + "x" + rows + " has more than "
+                    + MAX_CELLS + " cells, the most the occupancy bitboard can hold (e.g. 8x8)");
+        }
+
+        //Create the board itself
+        colours = new byte[cols * rows];
+        placements = PieceTable.placements(cols, rows);
+
+        //Work out the bits of every line once, for line clearing
+        rowMasks = new long[rows];
+        colMasks = new long[cols];
+        for (var y = 0; y < rows; y++) {
+            for (var x = 0; x < cols; x++) {
+                rowMasks[y] |= 1L << index(x, y);
+                colMasks[x] |= 1L << index(x, y);
+            }
+        }
+    }
+
+    /**
+     * Update the value at the given x and y index within the board
+     * @param x column
+     * @param y row
+     * @param value the new value
+     */
+    public void set(int x, int y, int value) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            throw new ArrayIndexOutOfBoundsException("No such cell: " + x + "," + y);
+        }
+        int index = index(x, y);
+        colours[index] = (byte) value;
+        if (value == 0) {
+            occupancy &= ~(1L << index);
+        } else {
+            occupancy |= 1L << index;
+        }
+        if (trace.isTraceEnabled()) {
+            trace.trace("Cell {},{} set to {}", x, y, value);
+        }
+
+        cellChanged(x, y, value);
+    }
+
+    /**
+     * Called whenever a cell is written. Does nothing by default.
+     * @param x column
+     * @param y row
+     * @param value the new value
+     */
+    protected void cellChanged(int x, int y, int value) {
+    }
+
+    /**
+     * Get the value represented at the given x and y index within the board
+     * @param x column
+     * @param y row
+     * @return the value
+     */
+    public int get(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            //No such index
+            return -1;
+        }
+        return colours[index(x, y)];
+    }
+
+    /**
+     * Whether the cell at the given x and y index holds a block
+     * @param x column
+     * @param y row
+     * @return true if occupied, false if empty or outside the board
+     */
+    public boolean isOccupied(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            return false;
+        }
+        return (occupancy & (1L << index(x, y))) != 0;
+    }
+
+    /**
+     * Get the occupancy bitboard, one bit per cell at index y * cols + x
+     * @return occupancy bits
+     */
+    public long getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Get the occupancy bits making up a row
+     * @param y row
+     * @return row mask
+     */
+    public long getRowMask(int y) {
+        return rowMasks[y];
+    }
+
+    /**
+     * Get the occupancy bits making up a column
+     * @param x column
+     * @return column mask
+     */
+    public long getColumnMask(int x) {
+        return colMasks[x];
+    }
+
+    /**
+     * Find every row which is completely filled
+     * @return a bit per row, set if that row is full
+     */
+    public int getFullRows() {
+        int full = 0;
+        for (var y = 0; y < rows; y++) {
+            if ((occupancy & rowMasks[y]) == rowMasks[y]) {
+                full |= 1 << y;
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Find every column which is completely filled
+     * @return a bit per column, set if that column is full
+     */
+    public int getFullColumns() {
+        int full = 0;
+        for (var x = 0; x < cols; x++) {
+            if ((occupancy & colMasks[x]) == colMasks[x]) {
+                full |= 1 << x;
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Empty every cell in the given mask
+     * @param mask occupancy bits of the cells to empty
+     */
+    public void clear(long mask) {
+        mask &= occupancy;
+        while (mask != 0L) {
+            int index = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            set(index % cols, index / cols, 0);
+        }
+    }
+
+    /**
+     * Get the bit index of a cell in the occupancy bitboard
+     * @param x column
+     * @param y row
+     * @return bit index
+     */
+    public int index(int x, int y) {
+        return y * cols + x;
+    }
+
+    /**
+     * Get the number of columns in this board
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows in this board
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the occupancy bits a piece would cover if centred on the given x and y
+     * @param gamepiece the piece
+     * @param x column
+     * @param y row
+     * @return placement mask, or 0 if any part of the piece would fall outside the board
+     */
+    public long placementMask(GamePiece gamepiece, int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            return 0L;
+        }
+        int key = gamepiece.getPiece() * PieceTable.ROTATIONS + gamepiece.getRotation();
+        return placements[(key * rows + y) * cols + x];
+    }
+
+    /**
+     * takes a gamepiece with a given x and y, and returns whether can be played or not
+     * @param gamepiece the piece
+     * @param x column of the centre of the piece
+     * @param y row of the centre of the piece
+     * @return true if the piece fits inside the board without covering any blocks
+     */
+    public boolean canPlayPiece(GamePiece gamepiece, int x, int y) {
+        long mask = placementMask(gamepiece, x, y);
+        return mask != 0L && (occupancy & mask) == 0L;
+    }
+
+    /**
+     * paints the blocks for the given gamepiece
+     * @param gamepiece the piece
+     * @param x column of the centre of the piece
+     * @param y row of the centre of the piece
+     */
+    public void playPiece(GamePiece gamepiece, int x, int y) {
+        if (colour > 15) {
+            colour = 1;
+        }
+
+        long mask = placementMask(gamepiece, x, y);
+        while (mask != 0L) {
+            int index = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+
+            int newValue = colours[index] + colour;
+            if (newValue > GamePiece.PIECES) {
+                newValue = 0;
+            }
+            this.set(index % cols, index / cols, newValue);
+        }
+
+        colour++;
+    }
+
+    /**
+     * Get the colour the next placed piece will be painted with
+     * @return colour value
+     */
+    public int getColour() {
+        return colour;
+    }
+
+}
@@ -0,0 +1,120 @@
+package uk.ac.soton.comp1206.engine;
+
+/**
+ * The Engine Listener is used to follow everything that happens inside a GameEngine. Every method does nothing by
+ * default, so a listener only needs to implement the events it cares about.
+ *
+ * Events are sent on whichever thread caused them: the caller's thread for moves, and the game loop's thread when the
+ * timer runs out.
+ */
+public interface EngineListener {
+
+    /**
+     * A piece was played on the board
+     * @param piece the piece that was played
+     * @param x column of the centre of the piece
+     * @param y row of the centre of the piece
+     */
+    default void piecePlayed(GamePiece piece, int x, int y) {
+    }
+
+    /**
+     * A piece could not be played where it was asked to be
+     * @param piece the piece
+     * @param x column of the centre of the piece
+     * @param y row of the centre of the piece
+     */
+    default void playFailed(GamePiece piece, int x, int y) {
+    }
+
+    /**
+     * One or more full lines were cleared from the board
+     * @param cleared occupancy bits of every cleared block
+     * @param lines the number of rows and columns cleared
+     */
+    default void linesCleared(long cleared, int lines) {
+    }
+
+    /**
+     * The score changed
+     * @param score the new score
+     */
+    default void scoreChanged(int score) {
+    }
+
+    /**
+     * The level changed
+     * @param level the new level
+     */
+    default void levelChanged(int level) {
+    }
+
+    /**
+     * The number of lives changed
+     * @param lives the new number of lives
+     */
+    default void livesChanged(int lives) {
+    }
+
+    /**
+     * The multiplier changed
+     * @param multiplier the new multiplier
+     */
+    default void multiplierChanged(int multiplier) {
+    }
+
+    /**
+     * The game moved on to the next piece
+     * @param current the current piece
+     * @param following the following piece
+     */
+    default void piecesChanged(GamePiece current, GamePiece following) {
+    }
+
+    /**
+     * The current piece was replaced from outside the engine, e.g. by a piece sent by a server
+     * @param piece the new current piece
+     */
+    default void currentPieceSet(GamePiece piece) {
+    }
+
+    /**
+     * The following piece was replaced from outside the engine, e.g. by a piece sent by a server
+     * @param piece the new following piece
+     */
+    default void followingPieceSet(GamePiece piece) {
+    }
+
+    /**
+     * The current piece was rotated
+     * @param piece the rotated piece
+     */
+    default void pieceRotated(GamePiece piece) {
+    }
+
+    /**
+     * The current and following pieces were swapped
+     */
+    default void piecesSwapped() {
+    }
+
+    /**
+     * The timer ran out before a piece was played, costing a life
+     * @param lives the number of lives left
+     */
+    default void lifeLost(int lives) {
+    }
+
+    /**
+     * The game loop (re)started with a new timer
+     * @param delay milliseconds until the timer runs out
+     */
+    default void loopStarted(long delay) {
+    }
+
+    /**
+     * The game is over because the player ran out of lives
+     */
+    default void gameOver() {
+    }
+}
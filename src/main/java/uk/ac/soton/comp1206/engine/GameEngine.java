@@ -0,0 +1,469 @@
+package uk.ac.soton.comp1206.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The GameEngine holds the rules of TetrECS: placing pieces, clearing lines, scoring, levels, lives and what happens
+ * when the timer runs out. It is pure Java with no dependency on JavaFX, so games can be run headless (for bots, load
+ * tests or replay validation) as well as behind the Game, which bridges the engine to properties, audio and the FX
+ * thread.
+ *
+ * Everything that happens is reported to an attached EngineListener. Moves can be made from any thread; the engine
+ * serialises them. The game loop timer is a single reused Timeout on a LoopScheduler, the process wide one unless
+ * another is given.
+ */
+public class GameEngine {
+
+    private static final Logger logger = LogManager.getLogger(GameEngine.class);
+
+    /**
+     * Listener used when none is attached
+     */
+    private static final EngineListener NO_LISTENER = new EngineListener() {};
+
+    /**
+     * The board the game is played on
+     */
+    private final Board board;
+
+    /**
+     * Source of new pieces
+     */
+    private final PieceGenerator pieces;
+
+    private EngineListener listener = NO_LISTENER;
+
+    private GamePiece currentPiece;
+
+    private GamePiece followingPiece;
+
+    private int score = 0;
+
+    private int level = 0;
+
+    private int lives = 3;
+
+    private int multiplier = 1;
+
+    //score at which the level last went up
+    private int prevScore = 0;
+
+    //number of times the game has moved on to the next piece
+    private int turn = 0;
+
+    //whether the game loop has been started
+    private boolean looping = false;
+
+    //set once the player runs out of lives
+    private boolean over = false;
+
+    //runs expire when the player takes too long, reused for every turn
+    private final LoopScheduler.Timeout timeout;
+
+    /**
+     * Create a new engine playing on the given board, with randomly seeded pieces
+     * @param board the board
+     */
+    public GameEngine(Board board) {
+        this(board, PieceGenerator.create(ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Create a new engine playing on the given board, taking pieces from the given generator
+     * @param board the board
+     * @param pieces source of new pieces
+     */
+    public GameEngine(Board board, PieceGenerator pieces) {
+        this(board, pieces, LoopScheduler.shared());
+    }
+
+    /**
+     * Create a new engine playing on the given board, taking pieces from the given generator and running its game loop
+     * on the given scheduler
+     * @param board the board
+     * @param pieces source of new pieces
+     * @param scheduler scheduler for the game loop timer
+     */
+    public GameEngine(Board board, PieceGenerator pieces, LoopScheduler scheduler) {
+        this.board = board;
+        this.pieces = pieces;
+        this.timeout = scheduler.newTimeout(this::timedOut);
+        this.currentPiece = spawnPiece();
+        this.followingPiece = spawnPiece();
+    }
+
+    /**
+     * Set the listener to be told about everything that happens in the game
+     * @param listener listener to set, or null to remove
+     */
+    public void setListener(EngineListener listener) {
+        this.listener = listener == null ? NO_LISTENER : listener;
+    }
+
+    /**
+     * Start the game loop. Until this is called the timer never runs out, which is useful for driving the engine
+     * directly.
+     */
+    public synchronized void start() {
+        logger.info("Starting game, current piece is {}", currentPiece);
+        looping = true;
+        gameLoop();
+    }
+
+    /**
+     * Stop the game loop
+     */
+    public synchronized void stop() {
+        looping = false;
+        timeout.cancel();
+    }
+
+    /**
+     * Play the current piece centred on the given cell, if it fits. Clears any full lines, restarts the timer and moves
+     * on to the next piece.
+     * @param x column
+     * @param y row
+     * @return true if the piece was played
+     */
+    public synchronized boolean play(int x, int y) {
+        if (over) {
+            return false;
+        }
+        if (!board.canPlayPiece(currentPiece, x, y)) {
+            listener.playFailed(currentPiece, x, y);
+            return false;
+        }
+
+        board.playPiece(currentPiece, x, y);
+        listener.piecePlayed(currentPiece, x, y);
+        afterPiece();
+        if (looping) {
+            gameLoop();
+        }
+        nextPiece();
+        return true;
+    }
+
+    /**
+     * Make a whole move at once: swap the pieces if asked, turn the current piece to the given rotation and play it
+     * @param swap whether to swap the current and following pieces first
+     * @param rotation rotation to play the piece in, 0 to 3
+     * @param x column
+     * @param y row
+     * @return true if the piece was played
+     */
+    public synchronized boolean playMove(boolean swap, int rotation, int x, int y) {
+        if (swap) {
+            swapCurrentPiece();
+        }
+        int turns = (rotation - currentPiece.getRotation()) & 3;
+        if (turns != 0) {
+            rotateCurrentPiece(turns);
+        }
+        return play(x, y);
+    }
+
+    /**
+     * Clear any full rows and columns, scoring them and updating the multiplier
+     */
+    private void afterPiece() {
+        int fullRows = board.getFullRows();
+        int fullCols = board.getFullColumns();
+
+        if (fullRows == 0 && fullCols == 0) {
+            setMultiplier(1);
+            return;
+        }
+
+        long cleared = 0L;
+        int lines = 0;
+        for (int row = 0; row < board.getRows(); row++) {
+            if ((fullRows & (1 << row)) != 0) {
+                logger.debug("Clearing row {}", row);
+                score(1, board.getCols());
+                cleared |= board.getRowMask(row);
+                lines++;
+            }
+        }
+        for (int col = 0; col < board.getCols(); col++) {
+            if ((fullCols & (1 << col)) != 0) {
+                logger.debug("Clearing column {}", col);
+                score(1, board.getRows());
+                cleared |= board.getColumnMask(col);
+                lines++;
+            }
+        }
+
+        //rows and columns are found before anything is emptied, so crossing lines both clear
+        board.clear(cleared);
+        listener.linesCleared(cleared, lines);
+
+        setMultiplier(multiplier + 1);
+    }
+
+    /**
+     * Add the score for clearing lines, going up a level for every 1000 points
+     * @param lines number of lines
+     * @param blocks number of blocks in each line
+     */
+    private void score(int lines, int blocks) {
+        score += lines * blocks * 10 * multiplier;
+        listener.scoreChanged(score);
+        if (score - prevScore >= 1000) {
+            level++;
+            prevScore += 1000;
+            logger.info("Level set to: {}", level);
+            listener.levelChanged(level);
+        }
+    }
+
+    /**
+     * Rotate the current piece
+     * @param rotations number of clockwise rotations
+     */
+    public synchronized void rotateCurrentPiece(int rotations) {
+        currentPiece.rotate(rotations);
+        listener.pieceRotated(currentPiece);
+    }
+
+    /**
+     * Swap the current and following pieces
+     */
+    public synchronized void swapCurrentPiece() {
+        var tempPiece = currentPiece;
+        currentPiece = followingPiece;
+        followingPiece = tempPiece;
+        listener.piecesSwapped();
+    }
+
+    /**
+     * Move on to the following piece, spawning a new following piece
+     */
+    public synchronized void nextPiece() {
+        currentPiece = followingPiece;
+        followingPiece = spawnPiece();
+        turn++;
+        logger.debug("Current piece is {}", currentPiece);
+        listener.piecesChanged(currentPiece, followingPiece);
+    }
+
+    /**
+     * The game loop timer ran out. Ignored if the game was stopped or the timer restarted (e.g. by a piece being
+     * played) after it expired but before this got the lock.
+     */
+    private synchronized void timedOut() {
+        if (looping && timeout.isExpired()) {
+            expire();
+        }
+    }
+
+    /**
+     * Handle the timer running out: the multiplier resets, a life is lost and the current piece is discarded
+     */
+    public synchronized void expire() {
+        if (over) {
+            return;
+        }
+        logger.info("Game Loop Finished: set mult to 1, lives -1, curr piece discarded");
+        setMultiplier(1);
+        lives--;
+        listener.livesChanged(lives);
+        listener.lifeLost(lives);
+        nextPiece();
+        if (looping) {
+            gameLoop();
+        } else if (lives < 0) {
+            gameOver();
+        }
+    }
+
+    /**
+     * Restart the timer, or end the game if the player has run out of lives
+     */
+    private void gameLoop() {
+        if (lives < 0) {
+            timeout.cancel();
+            gameOver();
+            return;
+        }
+        //replaces whatever was scheduled before
+        timeout.schedule(getTimerDelay());
+        listener.loopStarted(getTimerDelay());
+    }
+
+    /**
+     * End the game
+     */
+    private void gameOver() {
+        over = true;
+        looping = false;
+        logger.info("Game over with score {}", score);
+        listener.gameOver();
+    }
+
+    /**
+     * Create the next piece from the generator
+     * @return the new piece
+     */
+    private GamePiece spawnPiece() {
+        return pieces.nextPiece();
+    }
+
+    private void setMultiplier(int multiplier) {
+        if (this.multiplier != multiplier) {
+            this.multiplier = multiplier;
+            listener.multiplierChanged(multiplier);
+        }
+    }
+
+    /**
+     * Replace the current piece, for pieces supplied from outside the engine. No event is sent.
+     * @param piece the new current piece
+     */
+    public synchronized void setCurrentPiece(GamePiece piece) {
+        currentPiece = piece;
+    }
+
+    /**
+     * Replace the following piece, for pieces supplied from outside the engine. No event is sent.
+     * @param piece the new following piece
+     */
+    public synchronized void setFollowingPiece(GamePiece piece) {
+        followingPiece = piece;
+    }
+
+    /**
+     * Take a consistent copy of the state a move is chosen from
+     * @return snapshot of the game now
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(board.getCols(), board.getRows(), board.getOccupancy(), currentPiece.getPiece(),
+                followingPiece.getPiece(), multiplier, turn);
+    }
+
+    /**
+     * Replace one of the two pieces dealt at the start with one from outside the engine (e.g. sent by a server), as
+     * long as the game hasn't moved on to another piece yet. The listener is told with currentPieceSet or
+     * followingPieceSet.
+     * @param index 0 for the current piece, 1 for the following piece
+     * @param piece the new piece
+     * @return false if the game has already moved on, so the piece was not used
+     */
+    public synchronized boolean replaceInitialPiece(int index, GamePiece piece) {
+        if (turn != 0) {
+            return false;
+        }
+        if (index == 0) {
+            currentPiece = piece;
+            listener.currentPieceSet(piece);
+        } else {
+            followingPiece = piece;
+            listener.followingPieceSet(piece);
+        }
+        return true;
+    }
+
+    /**
+     * Get the delay before the timer runs out, which shortens as the level goes up
+     * @return delay in milliseconds
+     */
+    public synchronized long getTimerDelay() {
+        return Math.max(2500, 12000 - (500 * level));
+    }
+
+    /**
+     * Get the generator new pieces come from
+     * @return piece generator
+     */
+    public PieceGenerator getPieceGenerator() {
+        return pieces;
+    }
+
+    /**
+     * Get the board the game is played on
+     * @return board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    public synchronized GamePiece getCurrentPiece() { return currentPiece; }
+
+    public synchronized GamePiece getFollowingPiece() { return followingPiece; }
+
+    public synchronized int getScore() { return score; }
+
+    public synchronized int getLevel() { return level; }
+
+    public synchronized int getLives() { return lives; }
+
+    public synchronized int getMultiplier() { return multiplier; }
+
+    public synchronized boolean isOver() { return over; }
+
+    /**
+     * Get the number of times the game has moved on to the next piece, by a piece being played or the timer running
+     * out. Anything worked out from an earlier turn may no longer fit the board.
+     * @return turn number
+     */
+    public synchronized int getTurn() { return turn; }
+
+    /**
+     * The state of a game at one moment, for choosing a move away from the engine's lock
+     */
+    public static class Snapshot {
+
+        private final int cols;
+
+        private final int rows;
+
+        private final long occupancy;
+
+        private final int current;
+
+        private final int following;
+
+        private final int multiplier;
+
+        private final int turn;
+
+        private Snapshot(int cols, int rows, long occupancy, int current, int following, int multiplier, int turn) {
+            this.cols = cols;
+            this.rows = rows;
+            this.occupancy = occupancy;
+            this.current = current;
+            this.following = following;
+            this.multiplier = multiplier;
+            this.turn = turn;
+        }
+
+        public int getCols() { return cols; }
+
+        public int getRows() { return rows; }
+
+        public long getOccupancy() { return occupancy; }
+
+        /**
+         * Get the current piece number
+         * @return piece number
+         */
+        public int getCurrent() { return current; }
+
+        /**
+         * Get the following piece number
+         * @return piece number
+         */
+        public int getFollowing() { return following; }
+
+        public int getMultiplier() { return multiplier; }
+
+        /**
+         * Get the turn the snapshot was taken on
+         * @return turn number, as getTurn
+         */
+        public int getTurn() { return turn; }
+    }
+}
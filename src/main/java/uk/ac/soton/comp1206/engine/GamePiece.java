@@ -0,0 +1,141 @@
+package uk.ac.soton.comp1206.engine;
+
+/**
+ * Instances of GamePiece Represents the model of a specific Game Piece with it's block makeup.
+ *
+ * A GamePiece is only a handle onto a piece number and rotation; the shapes themselves are precomputed in the
+ * PieceTable, so rotating a piece does not allocate.
+ *
+ * The GamePiece class also contains a factory for producing a GamePiece of a particular shape, as specified by it's
+ * number.
+ */
+public class GamePiece {
+
+    /**
+     * The total number of pieces in this game
+     */
+    public static final int PIECES = 15;
+
+    /**
+     * The piece number, indexing into the PieceTable
+     */
+    private final int piece;
+
+    /**
+     * The current rotation of this piece, 0 to 3
+     */
+    private int rotation;
+
+    /**
+     * Create a new GamePiece of the specified piece number
+     * @param piece piece number
+     * @return the created GamePiece
+     */
+    public static GamePiece createPiece(int piece) {
+        if (piece < 0 || piece >= PIECES) {
+            //Not a valid piece number
+            throw new IndexOutOfBoundsException("No such piece: " + piece);
+        }
+        return new GamePiece(piece, 0);
+    }
+
+    /**
+     * Create a new GamePiece of the specified piece number and rotation
+     * @param piece piece number
+     * @param rotation number of times to rotate
+     * @return the created GamePiece
+     */
+    public static GamePiece createPiece(int piece, int rotation) {
+        var newPiece = createPiece(piece);
+
+        newPiece.rotate(rotation);
+        return newPiece;
+    }
+
+    /**
+     * Create a new GamePiece handle for the given piece number and rotation. Should not be called directly, only via
+     * the factory.
+     * @param piece piece number
+     * @param rotation rotation, 0 to 3
+     */
+    private GamePiece(int piece, int rotation) {
+        this.piece = piece;
+        this.rotation = rotation;
+    }
+
+    /**
+     * Get the value of this piece
+     * @return piece value
+     */
+    public int getValue() {
+        return piece + 1;
+    }
+
+    /**
+     * Get the piece number of this piece
+     * @return piece number
+     */
+    public int getPiece() {
+        return piece;
+    }
+
+    /**
+     * Get the current rotation of this piece
+     * @return rotation, 0 to 3
+     */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Get the block makeup of this piece. The array is shared between all pieces of this shape and rotation and must
+     * not be modified.
+     * @return 2D grid of the blocks representing the piece shape
+     */
+    public int[][] getBlocks() {
+        return PieceTable.blocks(piece, rotation);
+    }
+
+    /**
+     * Get the 3x3 shape mask of this piece in its current rotation
+     * @return shape mask
+     */
+    public int getMask() {
+        return PieceTable.mask(piece, rotation);
+    }
+
+    /**
+     * Get the offsets of each block from the centre of this piece, as consecutive (dx, dy) pairs
+     * @return block offsets
+     */
+    public int[] getOffsets() {
+        return PieceTable.offsets(piece, rotation);
+    }
+
+    /**
+     * Rotate this piece the given number of rotations
+     * @param rotations number of rotations
+     */
+    public void rotate(int rotations) {
+        rotation = (rotation + rotations) & (PieceTable.ROTATIONS - 1);
+    }
+
+    /**
+     * Rotate this piece exactly once
+     */
+    public void rotate() {
+        rotate(1);
+    }
+
+
+    /**
+     * Return the string representation of this piece
+     * @return the name of this piece
+     */
+    public String toString() {
+        return PieceTable.name(piece);
+    }
+
+
+
+}
@@ -0,0 +1,423 @@
+package uk.ac.soton.comp1206.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The LoopScheduler runs the game loop timers of every game in the process on a single thread, using a hashed timing
+ * wheel.
+ *
+ * Each game gets one Timeout, created once, which can be scheduled, rescheduled and cancelled as often as needed
+ * without allocating: a Timeout is linked directly into a bucket of the wheel. The wheel thread wakes every tick,
+ * fires everything due in that tick's bucket and sleeps while nothing is pending. Tasks run on the wheel thread, so
+ * they should be short and hand anything slow elsewhere.
+ *
+ * Expired timeouts are taken off the wheel under the lock but run after it is released, so a timeout can be scheduled
+ * again or cancelled in between. Every schedule and cancel bumps the timeout's sequence number, and a task whose
+ * number has moved on since it expired is skipped. A task which takes its own lock can check isExpired inside it, to
+ * also catch a schedule or cancel that lands after that check.
+ *
+ * A scheduler can instead be created with a manual clock (see manual()). It then has no thread and time only moves
+ * when advance is called, firing every timeout that falls due in order on the caller's thread. This lets a headless
+ * game be run faster than real time, for example to play through the whole level speed-up in a test.
+ */
+public class LoopScheduler {
+
+    private static final Logger logger = LogManager.getLogger(LoopScheduler.class);
+
+    /**
+     * The scheduler shared by every game in the process
+     */
+    private static final LoopScheduler shared = new LoopScheduler("Game Loop", 10, 512);
+
+    /**
+     * Get the scheduler shared by every game in the process
+     * @return shared scheduler
+     */
+    public static LoopScheduler shared() {
+        return shared;
+    }
+
+    /**
+     * Create a scheduler with a manual clock, which only moves when advance is called
+     * @return new manual scheduler
+     */
+    public static LoopScheduler manual() {
+        return new LoopScheduler("Manual Game Loop", 1, 512, true);
+    }
+
+    private final String name;
+
+    //true if time only moves when advance is called
+    private final boolean manual;
+
+    //the current tick of a manual clock
+    private long manualTick = 0;
+
+    //set while a manual scheduler is running tasks, to catch advance being called from inside one
+    private boolean advancing = false;
+
+    private final long tickNanos;
+
+    private final long tickMillis;
+
+    private final int mask;
+
+    /**
+     * Head of the list of timeouts in each bucket
+     */
+    private final Timeout[] wheel;
+
+    /**
+     * Time the wheel was created, tick 0
+     */
+    private final long startNanos = System.nanoTime();
+
+    private final Object lock = new Object();
+
+    //the last tick whose bucket has been fired
+    private long processedTick = 0;
+
+    //number of timeouts in the wheel
+    private int pending = 0;
+
+    private Thread worker;
+
+    private boolean shutdown = false;
+
+    /**
+     * Create a new scheduler
+     * @param name name of the wheel thread
+     * @param tickMillis length of a tick in milliseconds, the resolution of the timers
+     * @param wheelSize number of buckets, must be a power of two
+     */
+    public LoopScheduler(String name, long tickMillis, int wheelSize) {
+        this(name, tickMillis, wheelSize, false);
+    }
+
+    private LoopScheduler(String name, long tickMillis, int wheelSize, boolean manual) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.name = name;
+        this.manual = manual;
+        this.tickMillis = tickMillis;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = wheelSize - 1;
+        this.wheel = new Timeout[wheelSize];
+    }
+
+    /**
+     * Create a timeout which runs the given task when it expires. The timeout does nothing until it is scheduled.
+     * @param task task to run on the wheel thread
+     * @return the timeout
+     */
+    public Timeout newTimeout(Runnable task) {
+        return new Timeout(task);
+    }
+
+    /**
+     * Stop the wheel thread. Pending timeouts never fire.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Get the time on this scheduler's clock
+     * @return milliseconds since the scheduler was created, or since tick 0 of a manual clock
+     */
+    public long now() {
+        synchronized (lock) {
+            return currentTick() * tickMillis;
+        }
+    }
+
+    /**
+     * Move a manual clock forward, running every timeout that falls due on the calling thread in deadline order. The
+     * clock stands at each deadline while its tasks run, so anything they schedule is timed from there.
+     * @param millis milliseconds to move forward
+     */
+    public void advance(long millis) {
+        if (!manual) {
+            throw new IllegalStateException("Only a manual clock can be advanced");
+        }
+        synchronized (lock) {
+            if (advancing) {
+                throw new IllegalStateException("Cannot advance the clock from inside a game loop task");
+            }
+            advancing = true;
+        }
+        try {
+            long target;
+            synchronized (lock) {
+                target = manualTick + (millis + tickMillis - 1) / tickMillis;
+            }
+            while (true) {
+                Timeout expired;
+                synchronized (lock) {
+                    long next = nextDeadline();
+                    if (next > target) {
+                        manualTick = target;
+                        processedTick = target;
+                        return;
+                    }
+                    manualTick = next;
+                    expired = expire(next);
+                }
+                runExpired(expired);
+            }
+        } finally {
+            synchronized (lock) {
+                advancing = false;
+            }
+        }
+    }
+
+    /**
+     * Find the earliest deadline of any pending timeout. Must hold the lock.
+     * @return deadline tick, or Long.MAX_VALUE if nothing is pending
+     */
+    private long nextDeadline() {
+        long next = Long.MAX_VALUE;
+        if (pending == 0) {
+            return next;
+        }
+        for (var head : wheel) {
+            for (var timeout = head; timeout != null; timeout = timeout.next) {
+                next = Math.min(next, timeout.deadline);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Get the tick the wheel is at now
+     * @return current tick
+     */
+    private long currentTick() {
+        if (manual) {
+            return manualTick;
+        }
+        return (System.nanoTime() - startNanos) / tickNanos;
+    }
+
+    /**
+     * Link a timeout into its bucket. Must hold the lock.
+     * @param timeout timeout to link
+     */
+    private void link(Timeout timeout) {
+        int bucket = (int) (timeout.deadline & mask);
+        timeout.bucket = bucket;
+        timeout.prev = null;
+        timeout.next = wheel[bucket];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        wheel[bucket] = timeout;
+        pending++;
+    }
+
+    /**
+     * Unlink a timeout from its bucket. Must hold the lock.
+     * @param timeout timeout to unlink
+     */
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheel[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        pending--;
+    }
+
+    /**
+     * Start the wheel thread if it is not already running. Must hold the lock.
+     */
+    private void ensureStarted() {
+        if (worker == null && !manual) {
+            worker = new Thread(this::run, name);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Unlink every timeout due by the given tick from the buckets between the last processed tick and it, chaining
+     * them together to be run. Must hold the lock.
+     * @param target tick to process up to
+     * @return the first expired timeout, chained through nextExpired
+     */
+    private Timeout expire(long target) {
+        Timeout expired = null;
+        long from = processedTick + 1;
+        if (target - from > mask) {
+            //fell a whole turn behind or was idle that long, so every bucket needs looking at once
+            from = target - mask;
+        }
+        for (long tick = from; tick <= target; tick++) {
+            var timeout = wheel[(int) (tick & mask)];
+            while (timeout != null) {
+                var next = timeout.next;
+                if (timeout.deadline <= target) {
+                    unlink(timeout);
+                    timeout.expiredSequence = timeout.sequence;
+                    timeout.nextExpired = expired;
+                    expired = timeout;
+                }
+                timeout = next;
+            }
+        }
+        processedTick = target;
+        return expired;
+    }
+
+    /**
+     * The wheel thread: fire each tick's bucket, sleeping between ticks and while nothing is pending
+     */
+    private void run() {
+        while (true) {
+            Timeout expired;
+            synchronized (lock) {
+                while (pending == 0 && !shutdown) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (shutdown) {
+                    return;
+                }
+                //carry on from the tick the wheel went idle at rather than from now, so a timeout scheduled while idle
+                //is still found if this thread wakes after its deadline
+                expired = expire(currentTick());
+            }
+
+            runExpired(expired);
+
+            //sleep until the next tick starts
+            long untilNext = tickNanos - (System.nanoTime() - startNanos) % tickNanos;
+            try {
+                TimeUnit.NANOSECONDS.sleep(untilNext);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Run a chain of expired timeouts, skipping any scheduled again or cancelled since they expired. Must not hold the
+     * lock.
+     * @param expired first expired timeout, chained through nextExpired
+     */
+    private void runExpired(Timeout expired) {
+        while (expired != null) {
+            var next = expired.nextExpired;
+            expired.nextExpired = null;
+            if (!expired.isExpired()) {
+                expired = next;
+                continue;
+            }
+            try {
+                expired.task.run();
+            } catch (Exception e) {
+                logger.error("Game loop task failed: {}", e.getMessage());
+                e.printStackTrace();
+            }
+            expired = next;
+        }
+    }
+
+    /**
+     * A reusable timer belonging to one game. Scheduling it again replaces the previous deadline.
+     */
+    public class Timeout {
+
+        private final Runnable task;
+
+        //tick at which this timeout fires
+        private long deadline;
+
+        //bucket this timeout is linked into, or -1 if not pending
+        private int bucket = -1;
+
+        private Timeout prev;
+
+        private Timeout next;
+
+        //chains timeouts which have expired and are waiting to run, kept apart from next so they can be rescheduled
+        private Timeout nextExpired;
+
+        //bumped by every schedule and cancel
+        private long sequence = 0;
+
+        //the sequence number when this timeout last expired
+        private long expiredSequence = -1;
+
+        private Timeout(Runnable task) {
+            this.task = task;
+        }
+
+        /**
+         * Schedule the task to run after the given delay, replacing any previous schedule
+         * @param delayMillis delay in milliseconds
+         */
+        public void schedule(long delayMillis) {
+            synchronized (lock) {
+                sequence++;
+                if (bucket >= 0) {
+                    unlink(this);
+                }
+                long ticks = Math.max(1, (delayMillis + tickMillis - 1) / tickMillis);
+                deadline = currentTick() + ticks;
+                link(this);
+                ensureStarted();
+                lock.notifyAll();
+            }
+        }
+
+        /**
+         * Cancel the task if it has not run yet, including if it has expired but is still waiting to run
+         */
+        public void cancel() {
+            synchronized (lock) {
+                sequence++;
+                if (bucket >= 0) {
+                    unlink(this);
+                }
+            }
+        }
+
+        /**
+         * Whether the timeout has expired and has not been scheduled again or cancelled since
+         * @return true if an expiry of this timeout is due to run
+         */
+        public boolean isExpired() {
+            synchronized (lock) {
+                return expiredSequence == sequence;
+            }
+        }
+
+        /**
+         * Whether the task is scheduled and has not run yet
+         * @return true if pending
+         */
+        public boolean isPending() {
+            synchronized (lock) {
+                return bucket >= 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package uk.ac.soton.comp1206.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The MoveGenerator finds every legal placement of a piece on a board in one call, straight from the occupancy bitboard
+ * and the PieceTable placement masks. It has no side effects (no events, sounds or logging), so it can be used freely
+ * by hints, bots, cursor snapping and to validate moves sent by other players.
+ *
+ * For hot loops, moves are packed into an int: (rotation * rows + y) * cols + x. The static helpers and mask() unpack
+ * them. For everything else, placements() returns a list of Placements.
+ *
+ * One generator serves every board of the same size and is safe to share between threads.
+ */
+public class MoveGenerator {
+
+    /**
+     * Whether each rotation of each piece has the same shape as a lower rotation, indexed piece * ROTATIONS + rotation
+     */
+    private static final boolean[] REPEATED = new boolean[GamePiece.PIECES * PieceTable.ROTATIONS];
+
+    static {
+        for (var piece = 0; piece < GamePiece.PIECES; piece++) {
+            for (var rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+                for (var earlier = 0; earlier < rotation; earlier++) {
+                    if (PieceTable.mask(piece, earlier) == PieceTable.mask(piece, rotation)) {
+                        REPEATED[piece * PieceTable.ROTATIONS + rotation] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private final int cols;
+
+    private final int rows;
+
+    /**
+     * Placement masks for this board size, from the PieceTable
+     */
+    private final long[] placements;
+
+    /**
+     * Number of packed moves per piece, one per rotation and cell
+     */
+    private final int movesPerPiece;
+
+    /**
+     * Create a generator for boards of the given size
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public MoveGenerator(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.placements = PieceTable.placements(cols, rows);
+        this.movesPerPiece = PieceTable.ROTATIONS * cols * rows;
+    }
+
+    /**
+     * Create a generator for boards the same size as the given board
+     * @param board the board
+     */
+    public MoveGenerator(Board board) {
+        this(board.getCols(), board.getRows());
+    }
+
+    /**
+     * Get the most moves a piece can have, the size of array generate needs
+     * @return number of packed moves per piece
+     */
+    public int getMaxMoves() {
+        return movesPerPiece;
+    }
+
+    /**
+     * Find every legal placement of a piece
+     * @param occupancy occupancy bitboard
+     * @param piece piece number
+     * @param distinct if true, rotations with the same shape as a lower rotation are left out
+     * @param moves filled with the packed moves, must hold at least getMaxMoves()
+     * @return the number of moves found
+     */
+    public int generate(long occupancy, int piece, boolean distinct, int[] moves) {
+        int base = piece * movesPerPiece;
+        int perRotation = cols * rows;
+        int count = 0;
+        for (var rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+            if (distinct && REPEATED[piece * PieceTable.ROTATIONS + rotation]) {
+                continue;
+            }
+            int first = rotation * perRotation;
+            for (var move = first; move < first + perRotation; move++) {
+                long mask = placements[base + move];
+                if (mask != 0L && (occupancy & mask) == 0L) {
+                    moves[count++] = move;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count the legal placements of a piece, over every rotation
+     * @param occupancy occupancy bitboard
+     * @param piece piece number
+     * @param distinct if true, rotations with the same shape as a lower rotation are left out
+     * @return number of legal placements
+     */
+    public int count(long occupancy, int piece, boolean distinct) {
+        int base = piece * movesPerPiece;
+        int perRotation = cols * rows;
+        int count = 0;
+        for (var rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+            if (distinct && REPEATED[piece * PieceTable.ROTATIONS + rotation]) {
+                continue;
+            }
+            int first = base + rotation * perRotation;
+            for (var i = first; i < first + perRotation; i++) {
+                long mask = placements[i];
+                if (mask != 0L && (occupancy & mask) == 0L) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find every legal placement of a piece as a list
+     * @param occupancy occupancy bitboard
+     * @param piece piece number
+     * @param distinct if true, rotations with the same shape as a lower rotation are left out
+     * @return the legal placements
+     */
+    public List<Placement> placements(long occupancy, int piece, boolean distinct) {
+        var moves = new int[movesPerPiece];
+        int count = generate(occupancy, piece, distinct, moves);
+        var list = new ArrayList<Placement>(count);
+        for (var i = 0; i < count; i++) {
+            int move = moves[i];
+            list.add(new Placement(piece, rotation(move), x(move), y(move), mask(piece, move)));
+        }
+        return list;
+    }
+
+    /**
+     * Check whether a placement is legal
+     * @param occupancy occupancy bitboard
+     * @param piece piece number
+     * @param rotation rotation, 0 to 3
+     * @param x column
+     * @param y row
+     * @return true if the piece fits there
+     */
+    public boolean isLegal(long occupancy, int piece, int rotation, int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows || piece < 0 || piece >= GamePiece.PIECES) {
+            return false;
+        }
+        long mask = mask(piece, pack(rotation & 3, x, y));
+        return mask != 0L && (occupancy & mask) == 0L;
+    }
+
+    /**
+     * Find the legal centre for a piece, in its current rotation, closest to a cell. Used to snap a cursor onto a
+     * place the piece fits.
+     * @param occupancy occupancy bitboard
+     * @param piece the piece
+     * @param x column of the cursor
+     * @param y row of the cursor
+     * @return cell index (y * cols + x) of the nearest legal centre, or -1 if it fits nowhere
+     */
+    public int nearest(long occupancy, GamePiece piece, int x, int y) {
+        int base = piece.getPiece() * movesPerPiece + piece.getRotation() * cols * rows;
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (var cell = 0; cell < cols * rows; cell++) {
+            long mask = placements[base + cell];
+            if (mask != 0L && (occupancy & mask) == 0L) {
+                int distance = Math.abs(cell % cols - x) + Math.abs(cell / cols - y);
+                if (distance < bestDistance) {
+                    best = cell;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get the placement mask of a packed move
+     * @param piece piece number
+     * @param move packed move
+     * @return placement mask
+     */
+    public long mask(int piece, int move) {
+        return placements[piece * movesPerPiece + move];
+    }
+
+    /**
+     * Pack a move
+     * @param rotation rotation, 0 to 3
+     * @param x column
+     * @param y row
+     * @return packed move
+     */
+    public int pack(int rotation, int x, int y) {
+        return (rotation * rows + y) * cols + x;
+    }
+
+    /**
+     * Get the column of a packed move
+     * @param move packed move
+     * @return column
+     */
+    public int x(int move) {
+        return move % cols;
+    }
+
+    /**
+     * Get the row of a packed move
+     * @param move packed move
+     * @return row
+     */
+    public int y(int move) {
+        return (move / cols) % rows;
+    }
+
+    /**
+     * Get the rotation of a packed move
+     * @param move packed move
+     * @return rotation
+     */
+    public int rotation(int move) {
+        return move / (cols * rows);
+    }
+
+    /**
+     * Check whether a rotation of a piece has the same shape as a lower rotation, so has the same placements
+     * @param piece piece number
+     * @param rotation rotation
+     * @return true if a lower rotation looks the same
+     */
+    public static boolean isRepeatedRotation(int piece, int rotation) {
+        return REPEATED[piece * PieceTable.ROTATIONS + rotation];
+    }
+
+    /**
+     * One legal placement of a piece
+     */
+    public static class Placement {
+
+        private final int piece;
+
+        private final int rotation;
+
+        private final int x;
+
+        private final int y;
+
+        private final long mask;
+
+        public Placement(int piece, int rotation, int x, int y, long mask) {
+            this.piece = piece;
+            this.rotation = rotation;
+            this.x = x;
+            this.y = y;
+            this.mask = mask;
+        }
+
+        public int getPiece() { return piece; }
+
+        public int getRotation() { return rotation; }
+
+        public int getX() { return x; }
+
+        public int getY() { return y; }
+
+        /**
+         * Get the cells the piece covers
+         * @return occupancy bits
+         */
+        public long getMask() { return mask; }
+
+        @Override
+        public String toString() {
+            return PieceTable.name(piece) + " rotation " + rotation + " at " + x + "," + y;
+        }
+    }
+}
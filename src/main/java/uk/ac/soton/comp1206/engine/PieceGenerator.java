@@ -0,0 +1,86 @@
+package uk.ac.soton.comp1206.engine;
+
+/**
+ * A PieceGenerator produces the sequence of pieces a game is played with, as piece numbers.
+ *
+ * Every generator is seeded and uses SplittableRandom, whose sequence is fixed by the JDK's specification, so two
+ * generators of the same kind and seed produce exactly the same pieces on any machine. Replays, bots and multiplayer
+ * clients can share a seed instead of sending every piece. Pieces can be taken one at a time or pre-generated in
+ * bulk.
+ *
+ * The kind used for games is picked with the tetrecs.pieces system property: "uniform" (the default), "bag" or
+ * "weighted".
+ */
+public interface PieceGenerator {
+
+    /**
+     * Create a generator of the kind picked by the tetrecs.pieces system property
+     * @param seed seed
+     * @return the generator
+     */
+    static PieceGenerator create(long seed) {
+        return create(System.getProperty("tetrecs.pieces", "uniform"), seed);
+    }
+
+    /**
+     * Create a generator of the given kind
+     * @param kind "uniform", "bag" or "weighted"
+     * @param seed seed
+     * @return the generator
+     */
+    static PieceGenerator create(String kind, long seed) {
+        switch (kind) {
+            case "bag":
+                return new BagPieceGenerator(seed);
+            case "weighted":
+                return WeightedPieceGenerator.forDifficulty(seed, 0.5);
+            case "uniform":
+                return new UniformPieceGenerator(seed);
+            default:
+                throw new IllegalArgumentException("No such piece generator: " + kind);
+        }
+    }
+
+    /**
+     * Get the seed the generator was created with
+     * @return seed
+     */
+    long getSeed();
+
+    /**
+     * Get the next piece number
+     * @return piece number, 0 to GamePiece.PIECES - 1
+     */
+    int next();
+
+    /**
+     * Fill part of an array with the next pieces
+     * @param pieces array to fill
+     * @param from first index to fill
+     * @param to index after the last to fill
+     */
+    default void fill(int[] pieces, int from, int to) {
+        for (var i = from; i < to; i++) {
+            pieces[i] = next();
+        }
+    }
+
+    /**
+     * Pre-generate the next pieces
+     * @param count number of pieces
+     * @return the next count piece numbers
+     */
+    default int[] next(int count) {
+        var pieces = new int[count];
+        fill(pieces, 0, count);
+        return pieces;
+    }
+
+    /**
+     * Create the next piece
+     * @return new piece in its first rotation
+     */
+    default GamePiece nextPiece() {
+        return GamePiece.createPiece(next());
+    }
+}
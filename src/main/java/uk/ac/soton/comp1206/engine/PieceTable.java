@@ -0,0 +1,205 @@
+package uk.ac.soton.comp1206.engine;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The PieceTable holds every piece in every rotation, worked out once when the class is loaded.
+ *
+ * Each shape is stored as a 9 bit mask over the piece's 3x3 grid, where bit (j * 3 + i) is set if the block at column
+ * offset i and row offset j is filled. The same shapes are also kept as block grids (for display) and as lists of
+ * offsets from the centre block (for painting).
+ *
+ * For a given grid size the table can also produce placement masks: the occupancy bits a piece would cover when
+ * centred on a cell, laid out the same way as the Board bitboard. Checking a placement is then a single AND against the
+ * board occupancy.
+ */
+public final class PieceTable {
+
+    /**
+     * The number of distinct rotations of each piece
+     */
+    public static final int ROTATIONS = 4;
+
+    /**
+     * The name of each piece
+     */
+    private static final String[] NAMES = {
+            "Line", "C", "Plus", "Dot", "Square", "L", "J", "S", "Z", "T", "X", "Corner", "Inverse Corner", "Diagonal",
+            "Double"
+    };
+
+    /**
+     * The unrotated shape of each piece, as blocks[column][row]
+     */
+    private static final int[][][] SHAPES = {
+            {{0, 0, 0}, {1, 1, 1}, {0, 0, 0}},
+            {{0, 0, 0}, {1, 1, 1}, {1, 0, 1}},
+            {{0, 1, 0}, {1, 1, 1}, {0, 1, 0}},
+            {{0, 0, 0}, {0, 1, 0}, {0, 0, 0}},
+            {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}},
+            {{0, 0, 0}, {1, 1, 1}, {0, 0, 1}},
+            {{0, 0, 1}, {1, 1, 1}, {0, 0, 0}},
+            {{0, 0, 0}, {0, 1, 1}, {1, 1, 0}},
+            {{1, 1, 0}, {0, 1, 1}, {0, 0, 0}},
+            {{1, 0, 0}, {1, 1, 0}, {1, 0, 0}},
+            {{1, 0, 1}, {0, 1, 0}, {1, 0, 1}},
+            {{0, 0, 0}, {1, 1, 0}, {1, 0, 0}},
+            {{1, 0, 0}, {1, 1, 0}, {0, 0, 0}},
+            {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}},
+            {{0, 1, 0}, {0, 1, 0}, {0, 0, 0}}
+    };
+
+    /**
+     * 3x3 shape masks, indexed by piece * ROTATIONS + rotation
+     */
+    private static final int[] MASKS = new int[GamePiece.PIECES * ROTATIONS];
+
+    /**
+     * Block grids holding the piece value, indexed by piece * ROTATIONS + rotation
+     */
+    private static final int[][][] BLOCKS = new int[GamePiece.PIECES * ROTATIONS][][];
+
+    /**
+     * Offsets from the centre block as (dx, dy) pairs, indexed by piece * ROTATIONS + rotation
+     */
+    private static final int[][] OFFSETS = new int[GamePiece.PIECES * ROTATIONS][];
+
+    /**
+     * Placement tables already built, keyed by grid size
+     */
+    private static final ConcurrentHashMap<Integer, long[]> placements = new ConcurrentHashMap<>();
+
+    static {
+        for (int piece = 0; piece < GamePiece.PIECES; piece++) {
+            int[][] blocks = SHAPES[piece];
+            for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+                int key = piece * ROTATIONS + rotation;
+                int mask = 0;
+                int count = 0;
+                int[][] valued = new int[3][3];
+                for (int i = 0; i < 3; i++) {
+                    for (int j = 0; j < 3; j++) {
+                        if (blocks[i][j] != 0) {
+                            mask |= 1 << (j * 3 + i);
+                            valued[i][j] = piece + 1;
+                            count++;
+                        }
+                    }
+                }
+                int[] offsets = new int[count * 2];
+                int n = 0;
+                for (int bit = 0; bit < 9; bit++) {
+                    if ((mask & (1 << bit)) != 0) {
+                        offsets[n++] = bit % 3 - 1;
+                        offsets[n++] = bit / 3 - 1;
+                    }
+                }
+                MASKS[key] = mask;
+                BLOCKS[key] = valued;
+                OFFSETS[key] = offsets;
+
+                blocks = rotate(blocks);
+            }
+        }
+    }
+
+    private PieceTable() {
+    }
+
+    /**
+     * Rotate a 3x3 block grid clockwise once
+     * @param blocks blocks to rotate
+     * @return a new rotated grid
+     */
+    private static int[][] rotate(int[][] blocks) {
+        int[][] rotated = new int[3][3];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                rotated[2 - j][i] = blocks[i][j];
+            }
+        }
+        return rotated;
+    }
+
+    /**
+     * Get the name of a piece
+     * @param piece piece number
+     * @return name
+     */
+    public static String name(int piece) {
+        return NAMES[piece];
+    }
+
+    /**
+     * Get the 3x3 shape mask of a piece, bit (j * 3 + i) being column offset i and row offset j
+     * @param piece piece number
+     * @param rotation rotation, 0 to 3
+     * @return shape mask
+     */
+    public static int mask(int piece, int rotation) {
+        return MASKS[piece * ROTATIONS + rotation];
+    }
+
+    /**
+     * Get the block grid of a piece, holding the piece value in filled blocks. The array is shared and must not be
+     * modified.
+     * @param piece piece number
+     * @param rotation rotation, 0 to 3
+     * @return 2D grid of blocks
+     */
+    public static int[][] blocks(int piece, int rotation) {
+        return BLOCKS[piece * ROTATIONS + rotation];
+    }
+
+    /**
+     * Get the offsets of each block from the centre of the piece, as consecutive (dx, dy) pairs. The array is shared
+     * and must not be modified.
+     * @param piece piece number
+     * @param rotation rotation, 0 to 3
+     * @return block offsets
+     */
+    public static int[] offsets(int piece, int rotation) {
+        return OFFSETS[piece * ROTATIONS + rotation];
+    }
+
+    /**
+     * Get the placement table for a grid size. Entry ((piece * ROTATIONS + rotation) * rows + y) * cols + x holds the
+     * occupancy bits covered by the piece centred on (x, y), or 0 if part of the piece would fall outside the grid.
+     * The array is shared and must not be modified.
+     * @param cols number of columns
+     * @param rows number of rows
+     * @return placement masks
+     */
+    public static long[] placements(int cols, int rows) {
+        return placements.computeIfAbsent(cols * 256 + rows, key -> buildPlacements(cols, rows));
+    }
+
+    /**
+     * Work out the placement masks for every piece, rotation and centre cell of a grid
+     * @param cols number of columns
+     * @param rows number of rows
+     * @return placement masks
+     */
+    private static long[] buildPlacements(int cols, int rows) {
+        long[] table = new long[GamePiece.PIECES * ROTATIONS * rows * cols];
+        for (int key = 0; key < GamePiece.PIECES * ROTATIONS; key++) {
+            int[] offsets = OFFSETS[key];
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x < cols; x++) {
+                    long mask = 0L;
+                    for (int n = 0; n < offsets.length; n += 2) {
+                        int col = x + offsets[n];
+                        int row = y + offsets[n + 1];
+                        if (col < 0 || col >= cols || row < 0 || row >= rows) {
+                            mask = 0L;
+                            break;
+                        }
+                        mask |= 1L << (row * cols + col);
+                    }
+                    table[(key * rows + y) * cols + x] = mask;
+                }
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,33 @@
+package uk.ac.soton.comp1206.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Every piece is equally likely every time, independent of the pieces before it. This is how TetrECS has always picked
+ * pieces, so long droughts and repeats can happen.
+ */
+public class UniformPieceGenerator implements PieceGenerator {
+
+    private final long seed;
+
+    private final SplittableRandom random;
+
+    /**
+     * Create a generator
+     * @param seed seed
+     */
+    public UniformPieceGenerator(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public int next() {
+        return random.nextInt(GamePiece.PIECES);
+    }
+}
@@ -0,0 +1,76 @@
+package uk.ac.soton.comp1206.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Each piece is picked with a probability in proportion to its weight, independent of the pieces before it. Used to
+ * make games harder (more large pieces) or easier (more small ones).
+ */
+public class WeightedPieceGenerator implements PieceGenerator {
+
+    private final long seed;
+
+    private final SplittableRandom random;
+
+    /**
+     * Running total of the weights, so piece p is picked when a draw falls below cumulative[p] and not below the one
+     * before it
+     */
+    private final int[] cumulative = new int[GamePiece.PIECES];
+
+    /**
+     * Create a generator weighting pieces by their size. At difficulty 0 every piece is equally likely; as it goes up
+     * pieces with more blocks come up more often and pieces with fewer come up less.
+     * @param seed seed
+     * @param difficulty difficulty, from 0 to 1
+     * @return the generator
+     */
+    public static WeightedPieceGenerator forDifficulty(long seed, double difficulty) {
+        var weights = new int[GamePiece.PIECES];
+        for (var piece = 0; piece < weights.length; piece++) {
+            int blocks = Integer.bitCount(PieceTable.mask(piece, 0));
+            weights[piece] = Math.max(1, (int) Math.round(10 + difficulty * 5 * (blocks - 3)));
+        }
+        return new WeightedPieceGenerator(seed, weights);
+    }
+
+    /**
+     * Create a generator
+     * @param seed seed
+     * @param weights weight of each piece, indexed by piece number
+     */
+    public WeightedPieceGenerator(long seed, int[] weights) {
+        if (weights.length != GamePiece.PIECES) {
+            throw new IllegalArgumentException("Need a weight for each of the " + GamePiece.PIECES + " pieces");
+        }
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        int total = 0;
+        for (var piece = 0; piece < weights.length; piece++) {
+            if (weights[piece] < 0) {
+                throw new IllegalArgumentException("Negative weight for piece " + piece);
+            }
+            total += weights[piece];
+            cumulative[piece] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Every weight is 0");
+        }
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public int next() {
+        int draw = random.nextInt(cumulative[cumulative.length - 1]);
+        //only 15 pieces, so a scan is as quick as a search
+        int piece = 0;
+        while (draw >= cumulative[piece]) {
+            piece++;
+        }
+        return piece;
+    }
+}
@@ -0,0 +1,15 @@
+package uk.ac.soton.comp1206.event;
+
+/**
+ * The Cell Changed listener is used to follow changes to the cells of a Grid without binding a property per cell.
+ */
+public interface CellChangedListener {
+
+    /**
+     * Handle a cell changing value
+     * @param x column of the cell
+     * @param y row of the cell
+     * @param value the new value
+     */
+    public void cellChanged(int x, int y, int value);
+}
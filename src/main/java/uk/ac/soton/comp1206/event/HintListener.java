@@ -0,0 +1,15 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.bot.Move;
+
+/**
+ * The Hint listener is used to receive a suggested move once the bot has chosen one
+ */
+public interface HintListener {
+
+    /**
+     * Handle a suggested move
+     * @param move the suggested move, or null if nothing fits
+     */
+    public void hint(Move move);
+}
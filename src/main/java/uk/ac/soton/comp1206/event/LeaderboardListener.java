@@ -0,0 +1,26 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.network.ScoreEntry;
+
+import java.util.List;
+
+/**
+ * The Leaderboard listener is used to follow a LeaderboardModel row by row, so a view only has to update the rows
+ * that changed
+ */
+public interface LeaderboardListener {
+
+    /**
+     * Every row was replaced
+     * @param entries the rows, highest score first
+     */
+    public void leaderboardReset(List<ScoreEntry> entries);
+
+    /**
+     * One player's row changed, and may have moved
+     * @param entry the player's new row
+     * @param from the row's old position, or -1 for a new player
+     * @param to the row's new position
+     */
+    public void entryChanged(ScoreEntry entry, int from, int to);
+}
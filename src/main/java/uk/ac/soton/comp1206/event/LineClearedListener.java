@@ -4,6 +4,10 @@ import uk.ac.soton.comp1206.component.GameBlockCoordinate;
 
 import java.util.Set;
 
+/**
+ * The Line Cleared listener is used to handle the event when one or more lines are cleared from the grid. It passes
+ * every cleared block in one call; the set is reused by the game, so it is only valid for the duration of the call.
+ */
 public interface LineClearedListener {
     public void lineCleared(Set<GameBlockCoordinate> coordinates);
 }
@@ -0,0 +1,87 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The AudioDispatcher plays sound effects on a thread of its own. Game logic, on whatever thread it runs (the FX
+ * thread for moves, the game loop thread when the timer runs out), only puts the name of a sound on a queue and carries
+ * on; it never waits on the media system.
+ *
+ * The queue is bounded. If sounds are requested faster than they can be played the newest are dropped, since a late
+ * sound effect is worse than a missing one.
+ */
+public class AudioDispatcher {
+
+    private static final Logger logger = LogManager.getLogger(AudioDispatcher.class);
+
+    /**
+     * Most sounds waiting to be played at once
+     */
+    private static final int QUEUE_SIZE = 64;
+
+    /**
+     * The dispatcher shared by the whole game
+     */
+    private static final AudioDispatcher shared = new AudioDispatcher();
+
+    /**
+     * Get the dispatcher shared by the whole game
+     * @return shared dispatcher
+     */
+    public static AudioDispatcher shared() {
+        return shared;
+    }
+
+    /**
+     * Names of the sounds waiting to be played
+     */
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+    private Thread worker;
+
+    /**
+     * Queue a sound effect to be played. Never blocks.
+     * @param file name of the sound in /sounds/
+     */
+    public void submit(String file) {
+        ensureStarted();
+        if (!queue.offer(file)) {
+            logger.debug("Audio queue full, dropping {}", file);
+        }
+    }
+
+    /**
+     * Start the dispatcher thread if it is not already running
+     */
+    private synchronized void ensureStarted() {
+        if (worker == null) {
+            worker = new Thread(this::run, "Audio");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * The dispatcher thread: play each sound as it arrives
+     */
+    private void run() {
+        while (true) {
+            String file;
+            try {
+                file = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                SoundBank.play(file);
+            } catch (Exception e) {
+                e.printStackTrace();
+                logger.error("Unable to play " + file);
+            }
+        }
+    }
+}
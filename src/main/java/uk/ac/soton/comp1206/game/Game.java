@@ -5,20 +5,29 @@ import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.bot.MonteCarloBot;
 import uk.ac.soton.comp1206.component.GameBlock;
-import uk.ac.soton.comp1206.component.GameBlockCoordinate;
+import uk.ac.soton.comp1206.component.GameBlockCoordinateSet;
+import uk.ac.soton.comp1206.engine.EngineListener;
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.engine.GamePiece;
+import uk.ac.soton.comp1206.engine.PieceGenerator;
 import uk.ac.soton.comp1206.event.GameLoopListener;
 import uk.ac.soton.comp1206.event.HighScoreListener;
+import uk.ac.soton.comp1206.event.HintListener;
 import uk.ac.soton.comp1206.event.LineClearedListener;
 import uk.ac.soton.comp1206.event.NextPieceListener;
+import uk.ac.soton.comp1206.replay.ReplayRecorder;
 
-import java.util.*;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * The Game class handles the main logic, state and properties of the TetrECS game. Methods to manipulate the game state
- * and to handle actions made by the player should take place inside this class.
+ * The Game class bridges the headless GameEngine, which holds the rules of TetrECS, to the UI. It turns engine events
+ * into properties the scenes can bind to, plays sounds and makes sure listeners are called on the JavaFX thread.
+ * Actions made by the player should be passed to this class.
  */
-public class Game {
+public class Game implements EngineListener {
 
     private static final Logger logger = LogManager.getLogger(Game.class);
 
@@ -37,11 +46,10 @@ public class Game {
      */
     protected final Grid grid;
 
-    private Random rand = new Random();
-
-    private GamePiece currentPiece = spawnPiece();
-
-    private GamePiece followingPiece = spawnPiece();
+    /**
+     * The rules of the game, played on the grid
+     */
+    protected final GameEngine engine;
 
     protected IntegerProperty score = new SimpleIntegerProperty(0);
 
@@ -51,12 +59,6 @@ public class Game {
 
     protected IntegerProperty multiplier = new SimpleIntegerProperty(1);
 
-    //boolean for multiplier logic
-    protected boolean prevPieceCleared = false;
-
-    //int for level logic
-    protected int prevScore = 0;
-
     protected NextPieceListener pieceListener;
 
     //initial position when using WASD
@@ -65,7 +67,8 @@ public class Game {
 
     protected LineClearedListener lineClearedListener;
 
-    protected Timer gameTimer;
+    //reused to pass cleared blocks to the line cleared listener
+    protected final GameBlockCoordinateSet clearedBlocks;
 
     protected GameLoopListener gameLoopListener;
 
@@ -74,17 +77,42 @@ public class Game {
 
     private HighScoreListener highScoreListener;
 
+    //suggests moves when the player asks for a hint
+    private MonteCarloBot hintBot;
+
+    //seed of the engine's pieces, kept for the replay
+    private final long seed;
+
+    //records the game once it starts, null if it can't
+    protected ReplayRecorder recorder;
+
     /**
      * Create a new game with the specified rows and columns. Creates a corresponding grid model.
      * @param cols number of columns
      * @param rows number of rows
      */
     public Game(int cols, int rows) {
+        this(cols, rows, PieceGenerator.create(new Random().nextLong()));
+    }
+
+    /**
+     * Create a new game with the specified rows and columns, dealing pieces from the given generator
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param pieces source of new pieces
+     */
+    protected Game(int cols, int rows, PieceGenerator pieces) {
         this.cols = cols;
         this.rows = rows;
+        this.seed = pieces.getSeed();
 
         //Create a new grid model to represent the game state
         this.grid = new Grid(cols,rows);
+        this.clearedBlocks = new GameBlockCoordinateSet(cols, rows);
+
+        //Run the rules on the grid and listen for what happens
+        this.engine = new GameEngine(grid, pieces);
+        engine.setListener(this);
     }
 
     /**
@@ -92,6 +120,7 @@ public class Game {
      */
     public void start() {
         logger.info("Starting game");
+        recorder = ReplayRecorder.create(cols, rows, seed, engine.getCurrentPiece(), engine.getFollowingPiece());
         initialiseGame();
     }
 
@@ -100,9 +129,7 @@ public class Game {
      */
     public void initialiseGame() {
         logger.info("Initialising game");
-        logger.info("Current piece is " + currentPiece.toString());
-
-        gameLoop();
+        engine.start();
     }
 
     /**
@@ -110,16 +137,16 @@ public class Game {
      * @param gameBlock the block that was clicked
      */
     public void blockClicked(GameBlock gameBlock) {
-        int x = gameBlock.getX();
-        int y = gameBlock.getY();
-
-        if (grid.canPlayPiece(currentPiece, x, y)) {
-            grid.playPiece(currentPiece, x, y);
-            Multimedia.playAudio("place.wav");
-            afterPiece();
-            gameLoop();
-            nextPiece();
-        }
+        blockClicked(gameBlock.getX(), gameBlock.getY());
+    }
+
+    /**
+     * Handle the cell at the given column and row being clicked, by boards which don't have a GameBlock per cell
+     * @param x column
+     * @param y row
+     */
+    public void blockClicked(int x, int y) {
+        engine.play(x, y);
     }
 
     /**
@@ -130,6 +157,14 @@ public class Game {
         return grid;
     }
 
+    /**
+     * Get the engine running the rules of this game
+     * @return game engine
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
     /**
      * Get the number of columns in this game
      * @return number of columns
@@ -150,95 +185,19 @@ public class Game {
      * returns the current piece
      * @return
      */
-    public GamePiece getCurrentPiece() { return currentPiece; }
+    public GamePiece getCurrentPiece() { return engine.getCurrentPiece(); }
 
     /**
      * returns the following piece
      * @return
      */
-    public GamePiece getFollowingPiece() { return followingPiece; }
-
-    /**
-     * creates random gamepiece
-     * @return
-     */
-    public GamePiece spawnPiece() {
-        int random = rand.nextInt(15);
-        var gamePiece = GamePiece.createPiece(random);
-        return gamePiece;
-    }
+    public GamePiece getFollowingPiece() { return engine.getFollowingPiece(); }
 
     /**
-     * create the next gamepiece
+     * move on to the next gamepiece
      */
     public void nextPiece() {
-        currentPiece = followingPiece;
-        logger.info("Current piece is " + currentPiece.toString());
-
-        int random = rand.nextInt(15);
-        var newPiece = GamePiece.createPiece(random);
-        followingPiece = newPiece;
-
-        if (pieceListener != null) {
-            pieceListener.nextPiece(currentPiece);
-            pieceListener.nextPiece(followingPiece);
-        }
-    }
-
-    /**
-     * cycles through each column and row and clears a column or row if full
-     */
-    public void afterPiece() {
-        boolean lineCleared = false;
-        //checking row lines
-        for (int row=0; row < grid.getRows(); row++) {
-            int count = 0;
-            Set<GameBlockCoordinate> rowCoordinates = new HashSet<>();
-            for (int col=0; col < grid.getCols(); col++) {
-                var coordinate = new GameBlockCoordinate(col, row);
-                rowCoordinates.add(coordinate);
-                if (grid.get(col, row) != 0) {
-                    count++;
-                }
-            }
-            if (count == grid.getCols()) {
-                logger.info("Clearing row " + row);
-                score(1, grid.getCols());
-                lineCleared = true;
-                lineCleared(rowCoordinates);
-                Multimedia.playAudio("clear.wav");
-                getHighScore();
-            }
-        }
-        //checking column lines
-        for (int col=0; col < grid.getCols(); col++) {
-            int count = 0;
-            Set<GameBlockCoordinate> colCoordinates = new HashSet<>();
-            for (int row=0; row < grid.getRows(); row++) {
-                var coordinate = new GameBlockCoordinate(col, row);
-                colCoordinates.add(coordinate);
-                if (grid.get(col, row) != 0) {
-                    count++;
-                }
-            }
-            if (count == grid.getRows()) {
-                logger.info("Clearing column " + col);
-                score(1, grid.getRows());
-                lineCleared = true;
-                lineCleared(colCoordinates);
-                Multimedia.playAudio("clear.wav");
-                getHighScore();
-            }
-        }
-        if (lineCleared) {
-            prevPieceCleared = true;
-            setMultiplierProperty(getMultiplierProperty()+1);
-            logger.info("Increasing multiplier");
-        } else {
-            prevPieceCleared = false;
-            setMultiplierProperty(1);
-            logger.info("Resetting multiplier");
-        }
+        engine.nextPiece();
     }
 
     public IntegerProperty scoreProperty() { return score; }
@@ -257,28 +216,6 @@ public class Game {
 
     public int getMultiplierProperty() { return multiplier.get(); }
 
-    public void setScoreProperty(int value) { score.set(value);}
-
-    public void setLevelProperty(int value) { level.set(value);}
-
-    public void setLivesProperty(int value) { lives.set(value);}
-
-    public void setMultiplierProperty(int value) { multiplier.set(value);}
-
-    /**
-     * calculates the score
-     * @param lines
-     * @param blocks
-     */
-    public void score(int lines, int blocks) {
-        setScoreProperty((lines * blocks * 10 * getMultiplierProperty()) + getScoreProperty());
-        if (getScoreProperty() - prevScore >= 1000) {
-            setLevelProperty(getLevelProperty()+1);
-            prevScore += 1000;
-            logger.info("Level set to: " + levelProperty().toString());
-        }
-    }
-
     /**
      * sets the piece listener
      * @param listener
@@ -289,19 +226,14 @@ public class Game {
      * rotates the current piece
      */
     public void rotateCurrentPiece(int rotations) {
-        currentPiece.rotate(rotations);
-        Multimedia.playAudio("rotate.wav");
+        engine.rotateCurrentPiece(rotations);
     }
 
     /**
      * swaps the current and next piece
      */
     public void swapCurrentPiece() {
-        //temporary piece aiding with logic
-        var tempPiece = currentPiece;
-        currentPiece = followingPiece;
-        followingPiece = tempPiece;
-        Multimedia.playAudio("rotate.wav");
+        engine.swapCurrentPiece();
     }
 
     /**
@@ -350,49 +282,12 @@ public class Game {
 
     public void setLineClearedListener(LineClearedListener listener) { this.lineClearedListener = listener; }
 
-    private void lineCleared(Set<GameBlockCoordinate> coordinates) {
-        if (lineClearedListener != null) {
-            lineClearedListener.lineCleared(coordinates);
-        }
-    }
-
-    /**
-     * resets the timer, resets mult and decr lives and changes curr piece
-     */
-    public void gameLoop() {
-        if (gameTimer != null) {
-            //reset timer
-            gameTimer.cancel();
-        }
-        if (getLivesProperty() < 0) {
-            stopGame();
-            Platform.runLater(() -> gameLoopStart());
-            return;
-        }
-        gameTimer = new Timer();
-        var timerTask = new TimerTask() {
-            @Override
-            public void run() {
-                logger.info("Game Loop Finished: set mult to 1, lives -1, curr piece discarded");
-                setMultiplierProperty(1);
-                setLivesProperty(getLivesProperty()-1);
-                Multimedia.playAudio("lifelose.wav");
-                nextPiece();
-                gameLoop();
-            }
-        };
-        gameTimer.schedule(timerTask, getTimerDelay());
-
-        //handle game loop listener
-        Platform.runLater(() -> gameLoopStart());
-    }
-
     /**
      * returns delay between game loop call
      * @return
      */
     public long getTimerDelay() {
-        return Math.max(2500, 12000 - (500 * getLevelProperty()));
+        return engine.getTimerDelay();
     }
 
     public void setOnGameLoop(GameLoopListener listener) { this.gameLoopListener = listener; }
@@ -403,6 +298,8 @@ public class Game {
 
     public void stopGame() {
         stop = true;
+        engine.stop();
+        closeReplay();
     }
 
     public boolean getStopGame() {
@@ -413,8 +310,16 @@ public class Game {
      * stops the game timer -- used when esc key pressed
      */
     public void stopGameTimer() {
-        if (gameTimer != null) {
-            gameTimer.cancel();
+        engine.stop();
+        closeReplay();
+    }
+
+    /**
+     * Finish the replay of this game, if it is being recorded
+     */
+    protected void closeReplay() {
+        if (recorder != null) {
+            recorder.close();
         }
     }
 
@@ -429,4 +334,162 @@ public class Game {
     public int getColour() {
         return grid.getColour();
     }
+
+    /**
+     * Ask the bot for the best move, without blocking. The listener is called on the FX thread once it has chosen,
+     * unless a piece has been played or the timer has run out in the meantime, when the move no longer fits the game.
+     * @param listener listener to receive the move
+     */
+    public void requestHint(HintListener listener) {
+        if (hintBot == null) {
+            hintBot = new MonteCarloBot(200);
+        }
+        var bot = hintBot;
+        var snapshot = engine.snapshot();
+        CompletableFuture.supplyAsync(() -> bot.bestMove(snapshot))
+                .thenAccept(move -> runOnFxThread(() -> {
+                    if (move != null && engine.getTurn() == snapshot.getTurn()) {
+                        listener.hint(move);
+                    } else {
+                        logger.debug("Dropping hint for turn {}, now turn {}", snapshot.getTurn(), engine.getTurn());
+                    }
+                }))
+                .exceptionally(e -> {
+                    logger.error("Unable to find a hint: {}", e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Run on the JavaFX thread: straight away if already on it, otherwise later. Engine events from the game loop
+     * arrive on the timer thread.
+     * @param runnable what to run
+     */
+    protected void runOnFxThread(Runnable runnable) {
+        if (Platform.isFxApplicationThread()) {
+            runnable.run();
+        } else {
+            Platform.runLater(runnable);
+        }
+    }
+
+    @Override
+    public void piecePlayed(GamePiece piece, int x, int y) {
+        if (recorder != null) {
+            recorder.piecePlayed(piece, x, y);
+        }
+        Multimedia.playAudio("place.wav");
+    }
+
+    @Override
+    public void playFailed(GamePiece piece, int x, int y) {
+        logger.debug("Can't play piece at {},{}", x, y);
+        Multimedia.playAudio("fail.wav");
+    }
+
+    @Override
+    public void linesCleared(long cleared, int lines) {
+        Multimedia.playAudio("clear.wav");
+        runOnFxThread(() -> {
+            if (lineClearedListener != null) {
+                clearedBlocks.setMask(cleared);
+                lineClearedListener.lineCleared(clearedBlocks);
+            }
+            getHighScore();
+        });
+    }
+
+    @Override
+    public void scoreChanged(int value) {
+        runOnFxThread(() -> score.set(value));
+    }
+
+    @Override
+    public void levelChanged(int value) {
+        runOnFxThread(() -> level.set(value));
+    }
+
+    @Override
+    public void livesChanged(int value) {
+        runOnFxThread(() -> lives.set(value));
+    }
+
+    @Override
+    public void multiplierChanged(int value) {
+        runOnFxThread(() -> multiplier.set(value));
+    }
+
+    @Override
+    public void piecesChanged(GamePiece current, GamePiece following) {
+        if (recorder != null) {
+            recorder.piecesChanged(current, following);
+        }
+        runOnFxThread(() -> {
+            if (pieceListener != null) {
+                pieceListener.nextPiece(current);
+                pieceListener.nextPiece(following);
+            }
+        });
+    }
+
+    @Override
+    public void currentPieceSet(GamePiece piece) {
+        if (recorder != null) {
+            recorder.currentPieceSet(piece);
+        }
+        runOnFxThread(() -> {
+            if (pieceListener != null) {
+                pieceListener.nextPiece(piece);
+            }
+        });
+    }
+
+    @Override
+    public void followingPieceSet(GamePiece piece) {
+        if (recorder != null) {
+            recorder.followingPieceSet(piece);
+        }
+        runOnFxThread(() -> {
+            if (pieceListener != null) {
+                pieceListener.nextPiece(piece);
+            }
+        });
+    }
+
+    @Override
+    public void pieceRotated(GamePiece piece) {
+        if (recorder != null) {
+            recorder.pieceRotated(piece);
+        }
+        Multimedia.playAudio("rotate.wav");
+    }
+
+    @Override
+    public void piecesSwapped() {
+        if (recorder != null) {
+            recorder.piecesSwapped();
+        }
+        Multimedia.playAudio("rotate.wav");
+    }
+
+    @Override
+    public void lifeLost(int value) {
+        if (recorder != null) {
+            recorder.lifeLost(value);
+        }
+        Multimedia.playAudio("lifelose.wav");
+    }
+
+    @Override
+    public void loopStarted(long delay) {
+        //handle game loop listener
+        Platform.runLater(() -> gameLoopStart());
+    }
+
+    @Override
+    public void gameOver() {
+        stop = true;
+        closeReplay();
+        Platform.runLater(() -> gameLoopStart());
+    }
 }
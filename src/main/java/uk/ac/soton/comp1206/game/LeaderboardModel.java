@@ -0,0 +1,135 @@
+package uk.ac.soton.comp1206.game;
+
+import uk.ac.soton.comp1206.event.LeaderboardListener;
+import uk.ac.soton.comp1206.network.ScoreEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The LeaderboardModel holds the players in a multiplayer game sorted by score, highest first. It is filled once from a
+ * full list of scores, then kept up to date one player at a time as the server pushes changes, moving only the player
+ * that changed. Players with the same score keep the order they were in.
+ *
+ * Each change is passed to the listener with where the row was and where it is now. Must only be used from one thread
+ * (the FX thread, when backing a view).
+ */
+public class LeaderboardModel {
+
+    private static final Comparator<ScoreEntry> HIGHEST_FIRST = Comparator.comparingInt(ScoreEntry::getScore).reversed();
+
+    private final List<ScoreEntry> entries = new ArrayList<>();
+
+    private final Map<String, ScoreEntry> byName = new HashMap<>();
+
+    private LeaderboardListener listener;
+
+    public void setListener(LeaderboardListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Replace every row, e.g. from a SCORES message
+     * @param scores every player's score, in any order
+     */
+    public void reset(List<ScoreEntry> scores) {
+        entries.clear();
+        byName.clear();
+        entries.addAll(scores);
+        //stable, so equal scores stay in the order sent
+        entries.sort(HIGHEST_FIRST);
+        for (var entry : entries) {
+            byName.put(entry.getName(), entry);
+        }
+        if (listener != null) {
+            listener.leaderboardReset(Collections.unmodifiableList(entries));
+        }
+    }
+
+    /**
+     * A player's score changed
+     * @param name the player
+     * @param score their new score
+     */
+    public void updateScore(String name, int score) {
+        var old = byName.get(name);
+        if (old == null) {
+            update(null, new ScoreEntry(name, score, 0, false));
+        } else if (old.getScore() != score) {
+            update(old, new ScoreEntry(name, score, old.getLives(), old.isDead()));
+        }
+    }
+
+    /**
+     * A player's lives changed
+     * @param name the player
+     * @param lives their lives left
+     */
+    public void updateLives(String name, int lives) {
+        var old = byName.get(name);
+        if (old == null) {
+            update(null, new ScoreEntry(name, 0, lives, false));
+        } else if (old.getLives() != lives) {
+            update(old, new ScoreEntry(name, old.getScore(), lives, old.isDead()));
+        }
+    }
+
+    /**
+     * A player is out of the game
+     * @param name the player
+     */
+    public void playerDied(String name) {
+        var old = byName.get(name);
+        if (old == null) {
+            update(null, new ScoreEntry(name, 0, 0, true));
+        } else if (!old.isDead()) {
+            update(old, new ScoreEntry(name, old.getScore(), 0, true));
+        }
+    }
+
+    /**
+     * Replace a player's row and move it up or down to its place
+     * @param old the old row, or null for a new player
+     * @param entry the new row
+     */
+    private void update(ScoreEntry old, ScoreEntry entry) {
+        int from = old == null ? -1 : entries.indexOf(old);
+        int to;
+        if (from < 0) {
+            //below everyone with the same score or more
+            to = entries.size();
+            while (to > 0 && entries.get(to - 1).getScore() < entry.getScore()) {
+                to--;
+            }
+            entries.add(to, entry);
+        } else {
+            to = from;
+            //up past anyone with a lower score, or down past anyone with a higher one
+            while (to > 0 && entries.get(to - 1).getScore() < entry.getScore()) {
+                entries.set(to, entries.get(to - 1));
+                to--;
+            }
+            while (to < entries.size() - 1 && entries.get(to + 1).getScore() > entry.getScore()) {
+                entries.set(to, entries.get(to + 1));
+                to++;
+            }
+            entries.set(to, entry);
+        }
+        byName.put(entry.getName(), entry);
+        if (listener != null) {
+            listener.entryChanged(entry, from, to);
+        }
+    }
+
+    /**
+     * Get the rows, highest score first
+     * @return rows
+     */
+    public List<ScoreEntry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+}
@@ -1,45 +1,32 @@
 package uk.ac.soton.comp1206.game;
 
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class Multimedia {
     private static final Logger logger = LogManager.getLogger(Multimedia.class);
-    private static MediaPlayer audioPlayer;
-    private static MediaPlayer backgroundMusic;
 
+    /**
+     * queues a sound effect to be played from the preloaded SoundBank by the audio thread, so it is safe to call from
+     * game logic on any thread
+     * @param file name of the sound in /sounds/
+     */
     public static void playAudio(String file) {
-        String toPlay = Multimedia.class.getResource("/sounds/" + file).toExternalForm();
-        try {
-            Media audio = new Media(toPlay);
-            audioPlayer = new MediaPlayer(audio);
-            logger.info("Playing: " + file);
-            audioPlayer.play();
-        } catch (Exception e) {
-            e.printStackTrace();
-            logger.info("Unable to play " + file);
-        }
+        AudioDispatcher.shared().submit(file);
     }
 
+    /**
+     * fades in the background music for a scene, reusing its player if it has been played before
+     * @param file name of the track in /music/
+     */
     public static void playBackgroundMusic(String file) {
-        String toPlay = Multimedia.class.getResource("/music/" + file).toExternalForm();
-        try {
-            Media bg_audio = new Media(toPlay);
-            backgroundMusic = new MediaPlayer(bg_audio);
-            logger.info("Playing: " + file);
-            //probs a neater way of doing this
-            backgroundMusic.setCycleCount(200);
-            backgroundMusic.play();
-        } catch (Exception e) {
-            e.printStackTrace();
-            logger.info("Unable to play " + file);
-        }
+        Music.play(file);
     }
 
+    /**
+     * fades out the background music
+     */
     public static void closeBackgroundMusic() {
-        backgroundMusic.stop();
-        logger.info("Closing" + backgroundMusic.toString());
+        Music.stop();
     }
 }
@@ -1,150 +1,96 @@
 package uk.ac.soton.comp1206.game;
 
-import javafx.application.Platform;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.component.GameBlock;
+import uk.ac.soton.comp1206.engine.GamePiece;
+import uk.ac.soton.comp1206.engine.PieceGenerator;
 import uk.ac.soton.comp1206.network.Communicator;
-import uk.ac.soton.comp1206.scene.MultiplayerScene;
+import uk.ac.soton.comp1206.network.Protocol;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Random;
 
 public class MultiplayerGame extends Game {
 
+    /**
+     * Number of pieces to keep queued or asked for ahead of the game
+     */
+    private static final int PREFETCH = 5;
+
     private Communicator communicator;
 
     private static final Logger logger = LogManager.getLogger(MultiplayerGame.class);
 
-    private GamePiece currentpiece;
-    private GamePiece nextpiece;
-    private boolean isCurrent = true;
+    //pieces sent by the server, dealt to the engine
+    private final PieceQueue pieces;
+
+    //number of pieces the server has sent
+    private int received = 0;
 
     public MultiplayerGame(int cols, int rows, Communicator comm) {
-        super(cols, rows);
+        super(cols, rows, new PieceQueue(PREFETCH, PieceGenerator.create(new Random().nextLong()),
+                () -> comm.send("PIECE")));
+        pieces = (PieceQueue) engine.getPieceGenerator();
         communicator = comm;
-        communicator.addListener(this::receiveCommunication);
+        communicator.addListener("PIECE", this::receiveCommunication);
 
-        getPiece();
-        getPiece();
-    }
-
-    /**
-     * gets current and next piece from the communicator
-     */
-    public void getPiece() {
-        communicator.send("PIECE");
+        //only ask for pieces once the replies can be heard
+        pieces.open();
     }
 
     public void receiveCommunication(String message) {
-        if (message.contains("PIECE")) {
-            String message1 = message.replaceFirst("PIECE ", "");
-            Platform.runLater(() -> receivePieceCommunication(message1));
-        }
+        receivePiece(Protocol.parsePiece(message));
     }
 
-    @Override
-    public void blockClicked(GameBlock block) {
-        /**
-         * send message to comm
-         */
-        int x = block.getX();
-        int y = block.getY();
-
-        if (grid.canPlayPiece(currentpiece, x, y)) {
-            grid.playPiece(currentpiece, x, y);
-            Multimedia.playAudio("place.wav");
-            afterPiece();
-            gameLoop();
-            communicator.send("SCORE " + getScoreProperty());
-            nextPiece();
-        }
-    }
-
-    @Override
-    public void gameLoop() {
-        if (gameTimer != null) {
-            //reset timer
-            gameTimer.cancel();
-        }
-        if (getLivesProperty() < 0) {
-            stopGame();
-            //tells server that you're dead
-            communicator.send("DIE");
-            Platform.runLater(() -> gameLoopStart());
+    /**
+     * pieces come from the server rather than the engine's own generator, queued ahead of when they're needed. The
+     * game starts before any have arrived, so the first two replace the current and following pieces if the game
+     * hasn't moved on yet
+     * @param number piece number sent by the server
+     */
+    public void receivePiece(int number) {
+        logger.debug("Received piece {}", number);
+        int index = received++;
+        if (pieces.add(number)) {
             return;
         }
-        gameTimer = new Timer();
-        var timerTask = new TimerTask() {
-            @Override
-            public void run() {
-                logger.info("Multiplayer Game Loop Finished: set mult to 1, lives -1, curr piece discarded");
-                setMultiplierProperty(1);
-                setLivesProperty(getLivesProperty()-1);
-                Multimedia.playAudio("lifelose.wav");
-                //send lives and next piece
-                communicator.send("LIVES " + getLivesProperty());
-                nextPiece();
-
-                gameLoop();
-            }
-        };
-        gameTimer.schedule(timerTask, getTimerDelay());
-
-        //handle game loop listener
-        Platform.runLater(() -> gameLoopStart());
-    }
-
-    @Override
-    public void nextPiece() {
-        currentpiece = nextpiece;
-        getPiece();
-
-        if (pieceListener != null) {
-            pieceListener.nextPiece(currentpiece);
+        //a local piece was dealt in this one's place
+        if (index < 2 && engine.replaceInitialPiece(index, GamePiece.createPiece(number))) {
+            logger.debug("Piece {} replaces starting piece {}", number, index);
         }
     }
 
-     public void receivePieceCommunication(String mssg) {
-         if (isCurrent) {
-             currentpiece = GamePiece.createPiece(Integer.valueOf(mssg));
-             logger.info(currentpiece.getBlocks());
-             isCurrent = false;
-         } else {
-             nextpiece = GamePiece.createPiece(Integer.valueOf(mssg));
-             pieceListener.nextPiece(nextpiece);
-         }
+    /**
+     * Get the number of times the server hadn't sent a piece by the time it was needed
+     * @return number of gaps
+     */
+    public int getPieceGaps() {
+        return pieces.getGaps();
     }
 
+    /**
+     * send the new score to the server whenever it changes
+     */
     @Override
-    public GamePiece getCurrentPiece() { return currentpiece; }
-
-    @Override
-    public GamePiece getFollowingPiece() { return nextpiece; }
-
-    @Override
-    public int getColour() { return grid.getColour(); }
-
-    @Override
-    public void swapCurrentPiece() {
-        //temporary piece aiding with logic
-        var tempPiece = currentpiece;
-        currentpiece = nextpiece;
-        nextpiece = tempPiece;
-        Multimedia.playAudio("rotate.wav");
+    public void scoreChanged(int value) {
+        super.scoreChanged(value);
+        communicator.send("SCORE " + value);
     }
 
+    /**
+     * send lives to the server when the timer runs out
+     */
     @Override
-    public void rotateCurrentPiece(int rotations) {
-        currentpiece.rotate(rotations);
-        Multimedia.playAudio("rotate.wav");
+    public void lifeLost(int value) {
+        super.lifeLost(value);
+        communicator.send("LIVES " + value);
     }
 
     /**
-     * same as game but...
-     * use a queue request pieces as needed from server
-     * populate current and next piece
-     * listen for score updates and chat messages
-     * send appropriate updates to communicator
+     * tells server that you're dead
      */
+    @Override
+    public void gameOver() {
+        communicator.send("DIE");
+        super.gameOver();
+    }
 }
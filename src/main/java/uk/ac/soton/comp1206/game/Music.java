@@ -0,0 +1,158 @@
+package uk.ac.soton.comp1206.game;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Music plays the background music for each scene.
+ *
+ * One MediaPlayer is kept per track for the life of the game, so a track is only opened and buffered once however many
+ * times the player moves between scenes. Tracks loop indefinitely. Changing track fades the old one out while the new
+ * one fades in, and a track that is faded out is paused rather than disposed, ready to be faded back in.
+ *
+ * Must only be used from the FX thread.
+ */
+public class Music {
+
+    private static final Logger logger = LogManager.getLogger(Music.class);
+
+    /**
+     * How long a track takes to fade in or out
+     */
+    private static final Duration FADE = Duration.millis(800);
+
+    /**
+     * Every track opened so far, by file name
+     */
+    private static final Map<String, Track> tracks = new HashMap<>();
+
+    /**
+     * The track playing or fading in, if any
+     */
+    private static Track current;
+
+    /**
+     * Open the given tracks now so they are buffered before they are first needed
+     * @param files names of the tracks in /music/
+     */
+    public static void preload(String... files) {
+        for (var file : files) {
+            track(file);
+        }
+    }
+
+    /**
+     * Fade the given track in, fading out whatever was playing. Does nothing if the track is already playing.
+     * @param file name of the track in /music/
+     */
+    public static void play(String file) {
+        var track = track(file);
+        if (track != current && current != null) {
+            current.fadeOut();
+        }
+        current = track;
+        if (track != null) {
+            logger.info("Playing: " + file);
+            track.fadeIn();
+        }
+    }
+
+    /**
+     * Fade out whatever is playing
+     */
+    public static void stop() {
+        if (current != null) {
+            logger.info("Closing " + current.file);
+            current.fadeOut();
+            current = null;
+        }
+    }
+
+    /**
+     * Get the player for a track, opening it the first time
+     * @param file name of the track in /music/
+     * @return the track, or null if it can't be opened
+     */
+    private static Track track(String file) {
+        var track = tracks.get(file);
+        if (track != null) {
+            return track;
+        }
+        var url = Music.class.getResource("/music/" + file);
+        if (url == null) {
+            logger.error("Missing music " + file);
+            return null;
+        }
+        try {
+            var player = new MediaPlayer(new Media(url.toExternalForm()));
+            player.setCycleCount(MediaPlayer.INDEFINITE);
+            track = new Track(file, player);
+            tracks.put(file, track);
+            return track;
+        } catch (Exception e) {
+            e.printStackTrace();
+            logger.error("Unable to open " + file);
+            return null;
+        }
+    }
+
+    /**
+     * A buffered track and the fade currently running on it
+     */
+    private static class Track {
+
+        private final String file;
+
+        private final MediaPlayer player;
+
+        private Timeline fade;
+
+        private Track(String file, MediaPlayer player) {
+            this.file = file;
+            this.player = player;
+        }
+
+        /**
+         * Start the track if needed and fade it up to full volume, from wherever its volume is now
+         */
+        private void fadeIn() {
+            if (player.getStatus() != MediaPlayer.Status.PLAYING) {
+                if (fade == null) {
+                    player.setVolume(0);
+                }
+                player.play();
+            }
+            fadeTo(1, false);
+        }
+
+        /**
+         * Fade the track down to silence, then pause it
+         */
+        private void fadeOut() {
+            fadeTo(0, true);
+        }
+
+        private void fadeTo(double volume, boolean pauseAfter) {
+            if (fade != null) {
+                fade.stop();
+            }
+            fade = new Timeline(new KeyFrame(FADE, new KeyValue(player.volumeProperty(), volume)));
+            fade.setOnFinished(event -> {
+                fade = null;
+                if (pauseAfter) {
+                    player.pause();
+                }
+            });
+            fade.play();
+        }
+    }
+}
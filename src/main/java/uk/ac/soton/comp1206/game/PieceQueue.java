@@ -0,0 +1,134 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.engine.PieceGenerator;
+
+import java.util.ArrayDeque;
+
+/**
+ * The PieceQueue deals the pieces sent by the multiplayer server, asking for them ahead of time so a move never waits
+ * on a round trip to the server.
+ *
+ * It keeps up to a fixed number of pieces queued or asked for. Each piece dealt asks for another. If the server falls so
+ * far behind that the queue is empty when a piece is needed (a gap), a piece is dealt from a local generator instead,
+ * so the game never stalls. The server piece that was meant for that turn is dropped when it arrives, so from then on
+ * the player is dealt the same pieces as everyone else in the channel again: the cost of a gap is one piece that
+ * differs, rather than every piece after it arriving a turn late. The two pieces dealt before the queue is opened are
+ * local too, so the first two server pieces are handed back by add for the game to swap in if it still can.
+ *
+ * Pieces can be added from the network thread and dealt from the engine, so every method is synchronized.
+ */
+public class PieceQueue implements PieceGenerator {
+
+    private static final Logger logger = LogManager.getLogger(PieceQueue.class);
+
+    private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+    private final int depth;
+
+    //deals pieces when the server hasn't sent one in time
+    private final PieceGenerator fallback;
+
+    //asks the server for one more piece
+    private final Runnable request;
+
+    //pieces asked for that haven't arrived yet
+    private int outstanding = 0;
+
+    //no pieces are asked for until opened
+    private boolean open = false;
+
+    private int gaps = 0;
+
+    //local pieces dealt in place of server pieces which haven't arrived yet, which are dropped when they do
+    private int skip = 0;
+
+    /**
+     * Create a queue
+     * @param depth how many pieces to keep queued or asked for
+     * @param fallback generator to deal from when the server is behind
+     * @param request asks the server for one more piece
+     */
+    public PieceQueue(int depth, PieceGenerator fallback, Runnable request) {
+        this.depth = depth;
+        this.fallback = fallback;
+        this.request = request;
+    }
+
+    /**
+     * Start asking the server for pieces, filling the queue. Until then pieces come from the fallback.
+     */
+    public synchronized void open() {
+        open = true;
+        refill();
+    }
+
+    /**
+     * Add a piece sent by the server
+     * @param piece piece number
+     * @return true if the piece was queued, false if a local piece was already dealt in its place
+     */
+    public synchronized boolean add(int piece) {
+        if (outstanding > 0) {
+            outstanding--;
+        }
+        if (skip > 0) {
+            skip--;
+            return false;
+        }
+        queue.add(piece);
+        return true;
+    }
+
+    @Override
+    public synchronized int next() {
+        int piece;
+        if (!queue.isEmpty()) {
+            piece = queue.poll();
+        } else {
+            piece = fallback.next();
+            skip++;
+            if (open) {
+                gaps++;
+                logger.warn("No piece from the server yet ({} asked for), dealing a local piece", outstanding);
+            }
+        }
+        refill();
+        return piece;
+    }
+
+    /**
+     * Ask for enough pieces to bring the queue back up to depth
+     */
+    private void refill() {
+        if (!open) {
+            return;
+        }
+        while (queue.size() + outstanding < depth) {
+            outstanding++;
+            request.run();
+        }
+    }
+
+    @Override
+    public long getSeed() {
+        return fallback.getSeed();
+    }
+
+    /**
+     * Get the number of pieces waiting to be dealt
+     * @return queued pieces
+     */
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of times a piece was needed before the server had sent it
+     * @return number of gaps
+     */
+    public synchronized int getGaps() {
+        return gaps;
+    }
+}
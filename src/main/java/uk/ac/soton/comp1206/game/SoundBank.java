@@ -0,0 +1,162 @@
+package uk.ac.soton.comp1206.game;
+
+import javafx.scene.media.AudioClip;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The SoundBank holds every sound effect under /sounds/, decoded once into an AudioClip when the game starts, so
+ * playing an effect costs the same every time and allocates nothing.
+ *
+ * Each sound has an overlap policy deciding what happens when it is played again while still sounding, and a limit on
+ * how many copies can be started close together, so spamming a key or click can't pile up dozens of voices.
+ */
+public class SoundBank {
+
+    private static final Logger logger = LogManager.getLogger(SoundBank.class);
+
+    /**
+     * What to do when a sound is played while it is already sounding
+     */
+    public enum Overlap {
+        /**
+         * Play another copy over the top, up to the sound's voice limit
+         */
+        OVERLAP,
+        /**
+         * Cut the sound off and start it again
+         */
+        RESTART,
+        /**
+         * Let the sound finish and ignore the new request
+         */
+        SKIP
+    }
+
+    /**
+     * Every file in /sounds/
+     */
+    private static final String[] FILES = {
+            "clear.wav", "explode.wav", "fail.wav", "intro.mp3", "level.wav", "lifegain.wav", "lifelose.wav",
+            "message.wav", "place.wav", "pling.wav", "rotate.wav", "transition.wav"
+    };
+
+    /**
+     * Copies of an overlapping sound started within this long of each other count towards its voice limit
+     */
+    private static final long VOICE_WINDOW_NANOS = 150_000_000L;
+
+    private static final Map<String, Sound> sounds = new HashMap<>();
+
+    private static boolean loaded = false;
+
+    /**
+     * Decode every sound effect. Called once at startup; later calls do nothing.
+     */
+    public static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        for (var file : FILES) {
+            var url = SoundBank.class.getResource("/sounds/" + file);
+            if (url == null) {
+                logger.error("Missing sound " + file);
+                continue;
+            }
+            try {
+                sounds.put(file, new Sound(new AudioClip(url.toExternalForm())));
+            } catch (Exception e) {
+                e.printStackTrace();
+                logger.error("Unable to load " + file);
+            }
+        }
+
+        //quick, repeated actions cut themselves off rather than stacking up
+        configure("rotate.wav", Overlap.RESTART, 1);
+        configure("place.wav", Overlap.OVERLAP, 3);
+        configure("fail.wav", Overlap.OVERLAP, 2);
+        configure("message.wav", Overlap.OVERLAP, 2);
+        //longer effects are left to finish
+        configure("clear.wav", Overlap.SKIP, 1);
+        configure("lifelose.wav", Overlap.SKIP, 1);
+        configure("level.wav", Overlap.SKIP, 1);
+
+        logger.info("Loaded " + sounds.size() + " sounds");
+    }
+
+    /**
+     * Change how a sound behaves when played over itself
+     * @param file name of the sound in /sounds/
+     * @param overlap overlap policy
+     * @param maxVoices most copies of the sound that may be started together
+     */
+    public static synchronized void configure(String file, Overlap overlap, int maxVoices) {
+        var sound = sounds.get(file);
+        if (sound != null) {
+            sound.overlap = overlap;
+            sound.starts = new long[Math.max(1, maxVoices)];
+            sound.next = 0;
+        }
+    }
+
+    /**
+     * Play a sound effect, following its overlap policy
+     * @param file name of the sound in /sounds/
+     */
+    public static synchronized void play(String file) {
+        load();
+        var sound = sounds.get(file);
+        if (sound == null) {
+            logger.info("Unable to play " + file);
+            return;
+        }
+        sound.play();
+    }
+
+    /**
+     * A decoded sound and the voices recently started for it
+     */
+    private static class Sound {
+
+        private final AudioClip clip;
+
+        private Overlap overlap = Overlap.OVERLAP;
+
+        //when each of the most recent voices started, oldest at next
+        private long[] starts = new long[4];
+
+        private int next = 0;
+
+        private Sound(AudioClip clip) {
+            this.clip = clip;
+        }
+
+        private void play() {
+            switch (overlap) {
+                case SKIP:
+                    if (clip.isPlaying()) {
+                        return;
+                    }
+                    break;
+                case RESTART:
+                    clip.stop();
+                    break;
+                case OVERLAP:
+                    //every voice slot was used too recently, so this would just add to a pile up
+                    long now = System.nanoTime();
+                    if (starts[next] != 0 && now - starts[next] < VOICE_WINDOW_NANOS) {
+                        return;
+                    }
+                    starts[next] = now;
+                    next = (next + 1) % starts.length;
+                    break;
+            }
+            clip.play();
+        }
+    }
+}
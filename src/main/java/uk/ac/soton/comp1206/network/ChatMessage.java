@@ -0,0 +1,25 @@
+package uk.ac.soton.comp1206.network;
+
+/**
+ * A chat message from the server: who sent it and what they said
+ */
+public class ChatMessage {
+
+    private final String player;
+
+    private final String text;
+
+    public ChatMessage(String player, String text) {
+        this.player = player;
+        this.text = text;
+    }
+
+    public String getPlayer() { return player; }
+
+    public String getText() { return text; }
+
+    @Override
+    public String toString() {
+        return player + ": " + text;
+    }
+}
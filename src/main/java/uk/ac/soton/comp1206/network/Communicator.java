@@ -1,94 +1,168 @@
 package uk.ac.soton.comp1206.network;
 
 import com.neovisionaries.ws.client.*;
-import javafx.scene.control.Alert;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.CommunicationsListener;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Uses web sockets to talk to a web socket server and relays communication to attached listeners
  *
+ * Sending never blocks the caller: messages go into a bounded outbound queue, which a single "Communicator" thread
+ * drains into the socket. The same thread connects, and when the connection fails or drops it reconnects with
+ * exponential backoff, keeping queued messages until the socket is back.
+ *
+ * Messages which only ask for or report the latest state are coalesced while queued: a poll (e.g. SCORES) already
+ * waiting isn't queued again, and a new update (e.g. SCORE) replaces the one waiting. If the queue is still full the
+ * message is dropped. The number of messages sent, coalesced and dropped and the deepest the queue has been are kept
+ * to show how far the connection is keeping up.
+ *
+ * Incoming messages are dispatched by their command, the first word (e.g. PIECE, SCORES, MSG): a listener added for a
+ * command only hears messages with that command, found with one map lookup, while a listener added without one hears
+ * everything.
+ *
+ * The game uses one Communicator, and so one connection, for the whole process (see shared()). Its server defaults to
+ * the TetrECS server, and can be pointed elsewhere (e.g. a local stand-in) with the tetrecs.server system property.
  */
 public class Communicator {
 
     private static final Logger logger = LogManager.getLogger(Communicator.class);
 
+    /**
+     * The TetrECS server
+     */
+    public static final String DEFAULT_SERVER = "ws://discord.ecs.soton.ac.uk:9700";
+
+    private static Communicator shared;
+
+    /**
+     * Most messages that can wait to be sent
+     */
+    private static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * Frames the socket itself may hold before sending blocks, so a slow connection backs up into the queue
+     */
+    private static final int FRAME_QUEUE = 16;
+
+    //reconnect delays, doubling after each failure
+    private static final long MIN_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+
+    private static final long PING_INTERVAL_MILLIS = 30_000;
+
+    /**
+     * Polls with no arguments: one waiting is as good as two
+     */
+    private static final Set<String> POLLS = Set.of("SCORES", "HISCORES", "LIST", "USERS");
+
+    /**
+     * Updates of our own state: only the latest waiting one matters
+     */
+    private static final Set<String> UPDATES = Set.of("SCORE", "LIVES", "BOARD");
+
     /**
      * Attached communication listeners listening to messages on this Communicator. Each will be sent any messages.
      */
-    private final List<CommunicationsListener> handlers = new ArrayList<>();
+    private final List<CommunicationsListener> handlers = new CopyOnWriteArrayList<>();
 
-    private WebSocket ws = null;
+    /**
+     * Listeners for each command, sent only messages with that command
+     */
+    private final Map<String, List<CommunicationsListener>> topics = new ConcurrentHashMap<>();
+
+    private final String server;
+
+    private final Object lock = new Object();
+
+    //messages waiting to be sent, guarded by lock
+    private final ArrayDeque<Outbound> queue = new ArrayDeque<>();
+
+    //the queued message for each command that coalesces, guarded by lock
+    private final Map<String, Outbound> coalescing = new HashMap<>();
+
+    private final Thread thread;
+
+    private volatile WebSocket ws = null;
+
+    private volatile boolean closed = false;
+
+    //metrics, guarded by lock
+    private long sent = 0;
+    private long coalesced = 0;
+    private long dropped = 0;
+    private int maxQueued = 0;
+    private int connections = 0;
+
+    /**
+     * Get the communicator shared by the whole game, connecting it the first time
+     * @return shared communicator
+     */
+    public static synchronized Communicator shared() {
+        if (shared == null) {
+            shared = new Communicator(DEFAULT_SERVER);
+        }
+        return shared;
+    }
 
     /**
      * Create a new communicator to the given web socket server
      *
-     * @param server server to connect to
+     * @param server server to connect to, unless the tetrecs.server system property gives another
      */
     public Communicator(String server) {
+        this.server = System.getProperty("tetrecs.server", server);
+        thread = new Thread(this::run, "Communicator");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-//        try {
-//            var socketFactory = new WebSocketFactory();
-//
-//            //Connect to the server
-//            ws = socketFactory.createSocket(server);
-//            ws.connect();
-//            logger.info("Connected to " + server);
-//
-//            //When a message is received, call the receive method
-//            ws.addListener(new WebSocketAdapter() {
-//                @Override
-//                public void onTextMessage(WebSocket websocket, String message) throws Exception {
-//                    Communicator.this.receive(websocket, message);
-//                }
-//                @Override
-//                public void onPingFrame(WebSocket webSocket, WebSocketFrame webSocketFrame) throws Exception {
-//                    logger.info("Ping? Pong!");
-//                }
-//            });
-//
-//            //Error handling
-//            ws.addListener(new WebSocketAdapter() {
-//                @Override
-//                public void onTextMessage(WebSocket websocket, String message) throws Exception {
-//                    if(message.startsWith("ERROR")) {
-//                        logger.error(message);
-//                    }
-//                }
-//                @Override
-//                public void handleCallbackError(WebSocket webSocket, Throwable throwable) throws Exception {
-//                    logger.error("Callback Error:" + throwable.getMessage());
-//                    throwable.printStackTrace();
-//                }
-//                @Override
-//                public void onError(WebSocket webSocket, WebSocketException e) throws Exception {
-//                    logger.error("Error:" + e.getMessage());
-//                    e.printStackTrace();
-//                }
-//            });
-//
-//        } catch (Exception e){
-//            logger.error("Socket error: " + e.getMessage());
-//            e.printStackTrace();
-//
-//            Alert error = new Alert(Alert.AlertType.ERROR,"Unable to communicate with the TetrECS server\n\n" + e.getMessage() + "\n\nPlease ensure you are connected to the VPN");
-//            error.showAndWait();
-//            System.exit(1);
-//        }
-    }
-
-    /** Send a message to the server
+    /** Send a message to the server. Never blocks: the message is queued, coalesced or dropped.
      *
      * @param message Message to send
+     * @return true if the message was queued or coalesced, false if it was dropped
      */
-    public void send(String message) {
-//        logger.info("Sending message: " + message);
-//
-//        ws.sendText(message);
+    public boolean send(String message) {
+        var command = MessageReader.command(message);
+        synchronized (lock) {
+            if (closed) {
+                return false;
+            }
+
+            var waiting = coalescing.get(command);
+            if (waiting != null) {
+                //the same poll or a newer update of the same state is already waiting
+                waiting.message = message;
+                coalesced++;
+                return true;
+            }
+
+            if (queue.size() >= QUEUE_CAPACITY) {
+                dropped++;
+                logger.warn("Send queue full, dropping: {}", message);
+                return false;
+            }
+
+            var outbound = new Outbound(command, message);
+            queue.add(outbound);
+            if (POLLS.contains(command) || UPDATES.contains(command)) {
+                coalescing.put(command, outbound);
+            }
+            maxQueued = Math.max(maxQueued, queue.size());
+            lock.notifyAll();
+            return true;
+        }
     }
 
     /**
@@ -96,14 +170,39 @@ public class Communicator {
      * @param listener the listener to add
      */
     public void addListener(CommunicationsListener listener) {
-        //this.handlers.add(listener);
+        this.handlers.add(listener);
+    }
+
+    /**
+     * Add a new listener to receive only messages from the server with the given command
+     * @param command the command, e.g. PIECE
+     * @param listener the listener to add
+     */
+    public void addListener(String command, CommunicationsListener listener) {
+        topics.computeIfAbsent(command, key -> new CopyOnWriteArrayList<>()).add(listener);
     }
 
     /**
      * Clear all current listeners
      */
     public void clearListeners() {
-        //this.handlers.clear();
+        this.handlers.clear();
+        this.topics.clear();
+    }
+
+    /**
+     * Disconnect and stop the communicator. Anything still queued is dropped.
+     */
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        var socket = ws;
+        if (socket != null) {
+            socket.disconnect();
+        }
+        logger.info("Closed connection to {}: {}", server, getStats());
     }
 
     /** Receive a message from the server. Relay to any attached listeners
@@ -112,11 +211,195 @@ public class Communicator {
      * @param message the message that was received
      */
     private void receive(WebSocket websocket, String message) {
-//        logger.info("Received: " + message);
-//
-//        for(CommunicationsListener handler : handlers) {
-//            handler.receiveCommunication(message);
-//        }
+        logger.debug("Received: {}", message);
+
+        var listeners = topics.get(MessageReader.command(message));
+        if (listeners != null) {
+            for (CommunicationsListener listener : listeners) {
+                listener.receiveCommunication(message);
+            }
+        }
+        for(CommunicationsListener handler : handlers) {
+            handler.receiveCommunication(message);
+        }
+    }
+
+    /**
+     * The communicator thread: keep connected, and send queued messages whenever the socket is open
+     */
+    private void run() {
+        //no wait before the first connection, then at least the minimum before any reconnect
+        long backoff = 0;
+        while (!closed) {
+            var socket = ws;
+            if (socket == null || !socket.isOpen()) {
+                if (backoff > 0) {
+                    //wait a random time up to the backoff, so many clients don't all come back at once
+                    sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                    if (closed) {
+                        break;
+                    }
+                }
+                if (connect()) {
+                    backoff = MIN_BACKOFF_MILLIS;
+                } else {
+                    backoff = Math.max(MIN_BACKOFF_MILLIS, Math.min(backoff * 2, MAX_BACKOFF_MILLIS));
+                }
+                continue;
+            }
+
+            Outbound outbound;
+            synchronized (lock) {
+                while (queue.isEmpty() && !closed && socket.isOpen()) {
+                    try {
+                        //wake now and then to notice the socket closing
+                        lock.wait(1000);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed || queue.isEmpty() || !socket.isOpen()) {
+                    continue;
+                }
+                outbound = queue.poll();
+                if (coalescing.get(outbound.command) == outbound) {
+                    coalescing.remove(outbound.command);
+                }
+                sent++;
+            }
+
+            logger.debug("Sending message: {}", outbound.message);
+            //blocks while the socket's own frame queue is full
+            socket.sendText(outbound.message);
+        }
+    }
+
+    /**
+     * Open a new socket to the server
+     * @return true if connected
+     */
+    private boolean connect() {
+        try {
+            var socket = new WebSocketFactory()
+                    .setConnectionTimeout(CONNECT_TIMEOUT_MILLIS)
+                    .createSocket(server);
+            socket.setFrameQueueSize(FRAME_QUEUE);
+            socket.setPingInterval(PING_INTERVAL_MILLIS);
+
+            //When a message is received, call the receive method
+            socket.addListener(new WebSocketAdapter() {
+                @Override
+                public void onTextMessage(WebSocket websocket, String message) throws Exception {
+                    if(message.startsWith("ERROR")) {
+                        logger.error(message);
+                    }
+                    Communicator.this.receive(websocket, message);
+                }
+                @Override
+                public void onDisconnected(WebSocket websocket, WebSocketFrame serverCloseFrame,
+                                           WebSocketFrame clientCloseFrame, boolean closedByServer) throws Exception {
+                    if (!closed) {
+                        logger.warn("Disconnected from {}, reconnecting", server);
+                    }
+                    synchronized (lock) {
+                        lock.notifyAll();
+                    }
+                }
+                @Override
+                public void handleCallbackError(WebSocket webSocket, Throwable throwable) throws Exception {
+                    logger.error("Callback Error:" + throwable.getMessage());
+                    throwable.printStackTrace();
+                }
+                @Override
+                public void onError(WebSocket webSocket, WebSocketException e) throws Exception {
+                    logger.error("Error:" + e.getMessage());
+                }
+            });
+
+            socket.connect();
+            ws = socket;
+            synchronized (lock) {
+                connections++;
+            }
+            logger.info("Connected to {}", server);
+            return true;
+        } catch (Exception e) {
+            logger.error("Unable to connect to {}: {}", server, e.getMessage());
+            return false;
+        }
+    }
+
+    private void sleep(long millis) {
+        synchronized (lock) {
+            try {
+                //close wakes this early
+                if (!closed) {
+                    lock.wait(millis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Get the server this communicator talks to
+     * @return web socket URL
+     */
+    public String getServer() {
+        return server;
     }
 
+    /**
+     * Get whether the socket is open right now
+     * @return true if connected
+     */
+    public boolean isConnected() {
+        var socket = ws;
+        return socket != null && socket.isOpen();
+    }
+
+    /**
+     * Get the number of messages waiting to be sent
+     * @return queued messages
+     */
+    public int getQueued() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Get a summary of the metrics for logging
+     * @return sent, coalesced and dropped counts, queue depth and connections made
+     */
+    public String getStats() {
+        synchronized (lock) {
+            return "sent " + sent + ", coalesced " + coalesced + ", dropped " + dropped + ", queued " + queue.size() +
+                    " (max " + maxQueued + "), connections " + connections;
+        }
+    }
+
+    public long getSent() { synchronized (lock) { return sent; } }
+
+    public long getCoalesced() { synchronized (lock) { return coalesced; } }
+
+    public long getDropped() { synchronized (lock) { return dropped; } }
+
+    public int getMaxQueued() { synchronized (lock) { return maxQueued; } }
+
+    /**
+     * A queued message. Held in the coalescing map too, so a newer update can replace the text in place.
+     */
+    private static class Outbound {
+
+        private final String command;
+
+        private String message;
+
+        private Outbound(String command, String message) {
+            this.command = command;
+            this.message = message;
+        }
+    }
 }
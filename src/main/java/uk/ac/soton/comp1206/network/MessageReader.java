@@ -0,0 +1,168 @@
+package uk.ac.soton.comp1206.network;
+
+/**
+ * The MessageReader walks through a message from the server field by field, without regular expressions or splitting
+ * the message into intermediate strings. Fields are separated by ':' and records by line breaks; the command at the
+ * start is skipped when the reader is created.
+ *
+ * Numbers are read straight from the characters, and a String is only made for fields that are kept (e.g. names).
+ */
+public class MessageReader {
+
+    private final CharSequence text;
+
+    private final int length;
+
+    //index of the next character to read
+    private int position;
+
+    /**
+     * Create a reader over the body of a message, after its command
+     * @param text the whole message
+     */
+    public MessageReader(CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+        int start = 0;
+        while (start < length && !isSeparator(text.charAt(start))) {
+            start++;
+        }
+        //the single space (or line break) after the command
+        this.position = start < length ? start + 1 : start;
+    }
+
+    /**
+     * Get the command at the start of a message, the part before the first space or line break
+     * @param text the message
+     * @return command
+     */
+    public static String command(CharSequence text) {
+        int end = 0;
+        while (end < text.length() && !isSeparator(text.charAt(end))) {
+            end++;
+        }
+        return end == text.length() ? text.toString() : text.subSequence(0, end).toString();
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\n';
+    }
+
+    /**
+     * Check whether there is anything left to read, skipping any blank lines first
+     * @return true if there's another field
+     */
+    public boolean hasMore() {
+        while (position < length && (text.charAt(position) == '\n' || text.charAt(position) == '\r')) {
+            position++;
+        }
+        return position < length;
+    }
+
+    /**
+     * Check whether the next field is in the same record as the last, i.e. the reader is at a ':'
+     * @return true if the record has another field
+     */
+    public boolean hasField() {
+        return position < length && text.charAt(position) == ':';
+    }
+
+    /**
+     * Check whether the next field starts with a digit or a minus sign, so can be read with readInt
+     * @return true if the next field looks like a number
+     */
+    public boolean isNumber() {
+        int start = position < length && text.charAt(position) == ':' ? position + 1 : position;
+        return start < length && (text.charAt(start) == '-' || (text.charAt(start) >= '0' && text.charAt(start) <= '9'));
+    }
+
+    /**
+     * Read a field as a string, up to the next ':' or the end of the line, consuming a ':' after it
+     * @return the field
+     */
+    public String readField() {
+        int start = skipColon();
+        int end = start;
+        while (end < length && text.charAt(end) != ':' && text.charAt(end) != '\n' && text.charAt(end) != '\r') {
+            end++;
+        }
+        position = end;
+        return text.subSequence(start, end).toString();
+    }
+
+    /**
+     * Read the rest of the line as a string, ':'s and all
+     * @return the rest of the line
+     */
+    public String readLine() {
+        int start = skipColon();
+        int end = start;
+        while (end < length && text.charAt(end) != '\n' && text.charAt(end) != '\r') {
+            end++;
+        }
+        position = end;
+        return text.subSequence(start, end).toString();
+    }
+
+    /**
+     * Read the rest of the message as a string, line breaks and all
+     * @return the rest of the message
+     */
+    public String readRest() {
+        int start = skipColon();
+        position = length;
+        return text.subSequence(start, length).toString();
+    }
+
+    /**
+     * Read a field as a whole number
+     * @return the number
+     * @throws NumberFormatException if the field isn't a whole number
+     */
+    public int readInt() {
+        int start = skipColon();
+        int i = start;
+        var negative = i < length && text.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            value = value * 10 + (text.charAt(i) - '0');
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("Number too big: " + text.subSequence(start, i + 1));
+            }
+            digits++;
+            i++;
+        }
+        if (digits == 0 || (i < length && text.charAt(i) != ':' && text.charAt(i) != '\n' && text.charAt(i) != '\r')) {
+            throw new NumberFormatException("Not a number at " + start + " in: " + text);
+        }
+        if (!negative && value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number too big: " + text.subSequence(start, i));
+        }
+        position = i;
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Skip the rest of the current line, e.g. after a malformed record
+     */
+    public void skipLine() {
+        while (position < length && text.charAt(position) != '\n') {
+            position++;
+        }
+    }
+
+    /**
+     * Step over the ':' before a field, if there is one
+     * @return the start of the field
+     */
+    private int skipColon() {
+        if (position < length && text.charAt(position) == ':') {
+            position++;
+        }
+        return position;
+    }
+}
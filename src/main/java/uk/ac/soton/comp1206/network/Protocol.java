@@ -0,0 +1,146 @@
+package uk.ac.soton.comp1206.network;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocol decodes the bodies of messages from the TetrECS server into typed values, each in a single pass over the
+ * message with a MessageReader. Malformed lines are logged and skipped rather than failing the whole message.
+ *
+ * The message formats are:
+ * <ul>
+ *     <li>PIECE number</li>
+ *     <li>SCORES name:score:lives, one per line, where lives is DEAD once a player is out</li>
+ *     <li>HISCORES name:score, one per line</li>
+ *     <li>SCORE player:score, LIVES player:lives and DIE player, pushed when another player's state changes</li>
+ *     <li>CHANNELS and USERS: one name per line</li>
+ *     <li>MSG player:text</li>
+ *     <li>NICK name, or NICK old:new when someone changes their name</li>
+ * </ul>
+ */
+public class Protocol {
+
+    private static final Logger logger = LogManager.getLogger(Protocol.class);
+
+    /**
+     * Decode a PIECE message
+     * @param message the message
+     * @return the piece number
+     * @throws NumberFormatException if there's no piece number
+     */
+    public static int parsePiece(CharSequence message) {
+        return new MessageReader(message).readInt();
+    }
+
+    /**
+     * Decode a SCORES message, with each player's lives
+     * @param message the message
+     * @return the scores, in the order sent
+     */
+    public static List<ScoreEntry> parseScores(CharSequence message) {
+        return parseScoreLines(message, true);
+    }
+
+    /**
+     * Decode a HISCORES message
+     * @param message the message
+     * @return the scores, in the order sent
+     */
+    public static List<ScoreEntry> parseHiScores(CharSequence message) {
+        return parseScoreLines(message, false);
+    }
+
+    private static List<ScoreEntry> parseScoreLines(CharSequence message, boolean withLives) {
+        var reader = new MessageReader(message);
+        var entries = new ArrayList<ScoreEntry>();
+        while (reader.hasMore()) {
+            try {
+                var name = reader.readField();
+                var score = reader.readInt();
+                var lives = 0;
+                var dead = false;
+                if (withLives && reader.hasField()) {
+                    if (reader.isNumber()) {
+                        lives = reader.readInt();
+                    } else {
+                        dead = reader.readField().equals("DEAD");
+                    }
+                }
+                entries.add(new ScoreEntry(name, score, lives, dead));
+            } catch (NumberFormatException e) {
+                logger.warn("Skipping malformed score: {}", e.getMessage());
+            }
+            reader.skipLine();
+        }
+        return entries;
+    }
+
+    /**
+     * Get the player a SCORE, LIVES or DIE message is about
+     * @param message the message
+     * @return the player's name
+     */
+    public static String parsePlayer(CharSequence message) {
+        return new MessageReader(message).readField();
+    }
+
+    /**
+     * Get the new value in a SCORE or LIVES message
+     * @param message the message
+     * @return the player's score or lives
+     * @throws NumberFormatException if there's no value
+     */
+    public static int parsePlayerValue(CharSequence message) {
+        var reader = new MessageReader(message);
+        reader.readField();
+        return reader.readInt();
+    }
+
+    /**
+     * Decode a message with one name per line, i.e. CHANNELS or USERS
+     * @param message the message
+     * @return the names, in the order sent
+     */
+    public static List<String> parseNames(CharSequence message) {
+        var reader = new MessageReader(message);
+        var names = new ArrayList<String>();
+        while (reader.hasMore()) {
+            names.add(reader.readLine());
+        }
+        return names;
+    }
+
+    /**
+     * Decode a MSG message. The text may itself contain ':'s.
+     * @param message the message
+     * @return the chat message
+     */
+    public static ChatMessage parseChat(CharSequence message) {
+        var reader = new MessageReader(message);
+        var player = reader.readField();
+        return new ChatMessage(player, reader.hasField() ? reader.readRest() : "");
+    }
+
+    /**
+     * Decode a NICK message
+     * @param message the message
+     * @return the new name
+     */
+    public static String parseNick(CharSequence message) {
+        var reader = new MessageReader(message);
+        var name = reader.readField();
+        return reader.hasField() ? reader.readField() : name;
+    }
+
+    /**
+     * Get everything after the command
+     * @param message the message
+     * @return the body
+     */
+    public static String body(CharSequence message) {
+        return new MessageReader(message).readRest();
+    }
+}
@@ -0,0 +1,40 @@
+package uk.ac.soton.comp1206.network;
+
+/**
+ * One line of a SCORES or HISCORES message from the server: a player's name and score, and for SCORES the player's
+ * lives or whether they are out
+ */
+public class ScoreEntry {
+
+    private final String name;
+
+    private final int score;
+
+    private final int lives;
+
+    private final boolean dead;
+
+    public ScoreEntry(String name, int score, int lives, boolean dead) {
+        this.name = name;
+        this.score = score;
+        this.lives = lives;
+        this.dead = dead;
+    }
+
+    public String getName() { return name; }
+
+    public int getScore() { return score; }
+
+    /**
+     * Get the player's lives, 0 for HISCORES or a player who is out
+     * @return lives
+     */
+    public int getLives() { return lives; }
+
+    public boolean isDead() { return dead; }
+
+    @Override
+    public String toString() {
+        return name + ":" + score + (dead ? ":DEAD" : "");
+    }
+}
@@ -0,0 +1,195 @@
+package uk.ac.soton.comp1206.replay;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.engine.Board;
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.engine.GamePiece;
+import uk.ac.soton.comp1206.engine.LoopScheduler;
+import uk.ac.soton.comp1206.engine.UniformPieceGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The ReplayPlayer plays back a replay written by a ReplayRecorder, making each recorded action on a fresh GameEngine
+ * seeded the same as the original, so the board, score, level and lives end up exactly as they were.
+ *
+ * The engine runs on a manual clock and its timer is never started: the timer running out is itself a recorded action.
+ * So a replay can be stepped through one action at a time (e.g. to show it on a board, waiting getDelay() between
+ * steps), or played straight through to check the result of a game.
+ */
+public class ReplayPlayer {
+
+    private static final Logger logger = LogManager.getLogger(ReplayPlayer.class);
+
+    private final ByteBuffer data;
+
+    private final int cols;
+
+    private final int rows;
+
+    private final long seed;
+
+    private final long started;
+
+    private final GameEngine engine;
+
+    //milliseconds between the last two actions, and since the start
+    private long delay = 0;
+    private long time = 0;
+
+    //number of recorded plays the engine refused
+    private int diverged = 0;
+
+    private boolean finished = false;
+
+    /**
+     * Open a replay file
+     * @param path the replay
+     * @throws IOException if it can't be read or isn't a replay
+     */
+    public ReplayPlayer(Path path) throws IOException {
+        this(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    /**
+     * Open a replay already in memory
+     * @param data the replay, read from its current position
+     * @throws IOException if it isn't a replay
+     */
+    public ReplayPlayer(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.remaining() < 23 || data.getInt() != ReplayRecorder.MAGIC) {
+            throw new IOException("Not a replay");
+        }
+        int version = data.get();
+        if (version != ReplayRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        this.cols = data.get();
+        this.rows = data.get();
+        this.seed = data.getLong();
+        this.started = data.getLong();
+        //every piece is recorded, so it doesn't matter which kind of generator the game used
+        this.engine = new GameEngine(new Board(cols, rows), new UniformPieceGenerator(seed), LoopScheduler.manual());
+    }
+
+    /**
+     * Make the next recorded action
+     * @return true if an action was made, false at the end of the replay
+     */
+    public boolean step() {
+        if (finished || !data.hasRemaining()) {
+            finished = true;
+            return false;
+        }
+        int header = data.get() & 0xff;
+        int type = header >>> 4;
+        int argument = header & 0xf;
+        delay = readVarint();
+        time += delay;
+
+        switch (type) {
+            case ReplayRecorder.PLAY:
+                int cell = data.get() & 0xff;
+                if (!engine.play(cell % cols, cell / cols)) {
+                    diverged++;
+                    logger.warn("Replay diverged: couldn't play {} at {},{}", engine.getCurrentPiece(), cell % cols,
+                            cell / cols);
+                }
+                break;
+            case ReplayRecorder.ROTATE:
+                int turns = (argument - engine.getCurrentPiece().getRotation()) & 3;
+                if (turns != 0) {
+                    engine.rotateCurrentPiece(turns);
+                }
+                break;
+            case ReplayRecorder.SWAP:
+                engine.swapCurrentPiece();
+                break;
+            case ReplayRecorder.EXPIRE:
+                engine.expire();
+                break;
+            case ReplayRecorder.CURRENT:
+                engine.setCurrentPiece(GamePiece.createPiece(argument));
+                break;
+            case ReplayRecorder.FOLLOWING:
+                engine.setFollowingPiece(GamePiece.createPiece(argument));
+                break;
+            case ReplayRecorder.END:
+                finished = true;
+                return false;
+            default:
+                logger.error("Unknown replay record {}, stopping", type);
+                finished = true;
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Play every remaining action
+     * @return the engine, in the state the game ended in
+     */
+    public GameEngine playAll() {
+        while (step()) {
+            //keep going
+        }
+        return engine;
+    }
+
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = data.get();
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Get the engine the replay is played on. Attach a listener to it to follow the replay.
+     * @return engine
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public int getCols() { return cols; }
+
+    public int getRows() { return rows; }
+
+    public long getSeed() { return seed; }
+
+    /**
+     * Get the wall clock time the game started
+     * @return milliseconds since the epoch
+     */
+    public long getStarted() { return started; }
+
+    /**
+     * Get how long the player took over the last action
+     * @return milliseconds since the action before
+     */
+    public long getDelay() { return delay; }
+
+    /**
+     * Get when the last action was made
+     * @return milliseconds since the start of the game
+     */
+    public long getTime() { return time; }
+
+    /**
+     * Get the number of recorded plays the engine refused. Anything but 0 means the replay doesn't match the game.
+     * @return number of refused plays
+     */
+    public int getDiverged() { return diverged; }
+
+    public boolean isFinished() { return finished; }
+}
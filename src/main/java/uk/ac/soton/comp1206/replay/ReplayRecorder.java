@@ -0,0 +1,246 @@
+package uk.ac.soton.comp1206.replay;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.engine.EngineListener;
+import uk.ac.soton.comp1206.engine.GamePiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The ReplayRecorder writes a compact binary record of a game, so every game played can be kept and played back
+ * through the engine by a ReplayPlayer.
+ *
+ * A replay is a header followed by one record per action. The header is the magic number, the format version, the
+ * board size, the seed the engine's pieces came from and the wall clock time the game started. Each record is one
+ * byte holding the record type in the high four bits and a small argument in the low four bits (a rotation or a piece
+ * number), then the milliseconds since the last record as a varint, then for a play the cell the piece was centred on.
+ * A typical move is a play and the piece that replaced it: six bytes or so.
+ *
+ * Records are put into a buffer and written to the file through its channel when the buffer fills up and when the
+ * recorder is closed, so nothing touches the disk on most moves. If the file can't be written the recording is
+ * dropped and the game carries on.
+ *
+ * Takes the engine's events as an EngineListener, so the Game passes on the ones it gets, including the pieces replaced
+ * from outside the engine (e.g. sent by a server).
+ */
+public class ReplayRecorder implements EngineListener {
+
+    private static final Logger logger = LogManager.getLogger(ReplayRecorder.class);
+
+    /**
+     * First four bytes of every replay: "TRPL"
+     */
+    static final int MAGIC = 0x5452504c;
+
+    static final int VERSION = 1;
+
+    //record types, in the high four bits of a record's first byte
+    static final int PLAY = 1;
+    static final int ROTATE = 2;
+    static final int SWAP = 3;
+    static final int EXPIRE = 4;
+    static final int CURRENT = 5;
+    static final int FOLLOWING = 6;
+    static final int END = 7;
+
+    /**
+     * Directory replays are kept in
+     */
+    public static final Path DIRECTORY = Path.of("replays");
+
+    /**
+     * Enough room left in the buffer for any one record
+     */
+    private static final int MAX_RECORD = 16;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+    private final Path path;
+
+    private final int cols;
+
+    //time of the last record
+    private long lastNanos = System.nanoTime();
+
+    private boolean closed = false;
+
+    /**
+     * Create a recorder writing to a new file in the replays directory
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed seed of the engine's random source
+     * @param current the starting current piece
+     * @param following the starting following piece
+     * @return the recorder, or null if the file can't be created
+     */
+    public static ReplayRecorder create(int cols, int rows, long seed, GamePiece current, GamePiece following) {
+        var started = System.currentTimeMillis();
+        var path = DIRECTORY.resolve("replay-" + started + "-" + Long.toHexString(seed & 0xffff) + ".trp");
+        try {
+            Files.createDirectories(DIRECTORY);
+            return new ReplayRecorder(path, cols, rows, seed, started, current, following);
+        } catch (IOException e) {
+            e.printStackTrace();
+            logger.error("Unable to record replay to {}", path);
+            return null;
+        }
+    }
+
+    /**
+     * Create a recorder writing to the given file, replacing it if it exists
+     * @param path file to write
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed seed of the engine's random source
+     * @param started wall clock time the game started, in milliseconds
+     * @param current the starting current piece
+     * @param following the starting following piece
+     * @throws IOException if the file can't be opened
+     */
+    public ReplayRecorder(Path path, int cols, int rows, long seed, long started, GamePiece current,
+                          GamePiece following) throws IOException {
+        this.path = path;
+        this.cols = cols;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) cols);
+        buffer.put((byte) rows);
+        buffer.putLong(seed);
+        buffer.putLong(started);
+        logger.info("Recording replay to {}", path);
+        currentPieceSet(current);
+        followingPieceSet(following);
+    }
+
+    /**
+     * Get the file being written
+     * @return path of the replay
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void piecePlayed(GamePiece piece, int x, int y) {
+        if (record(PLAY, 0)) {
+            //boards are at most 64 cells, so the cell fits in a byte
+            buffer.put((byte) (y * cols + x));
+        }
+    }
+
+    @Override
+    public synchronized void pieceRotated(GamePiece piece) {
+        record(ROTATE, piece.getRotation());
+    }
+
+    @Override
+    public synchronized void piecesSwapped() {
+        record(SWAP, 0);
+    }
+
+    @Override
+    public synchronized void lifeLost(int lives) {
+        record(EXPIRE, 0);
+    }
+
+    /**
+     * The following piece is recorded every time the game moves on, so a replay doesn't depend on how the engine picks
+     * pieces
+     */
+    @Override
+    public synchronized void piecesChanged(GamePiece current, GamePiece following) {
+        record(FOLLOWING, following.getPiece());
+    }
+
+    @Override
+    public synchronized void currentPieceSet(GamePiece piece) {
+        record(CURRENT, piece.getPiece());
+    }
+
+    @Override
+    public synchronized void followingPieceSet(GamePiece piece) {
+        record(FOLLOWING, piece.getPiece());
+    }
+
+    @Override
+    public void gameOver() {
+        close();
+    }
+
+    /**
+     * Mark the end of the replay, write out anything buffered and close the file. Later events are ignored.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        record(END, 0);
+        closed = true;
+        try {
+            flush();
+            var size = channel.size();
+            channel.close();
+            logger.info("Saved replay {} ({} bytes)", path, size);
+        } catch (IOException e) {
+            logger.error("Unable to save replay {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Start a record, writing out the buffer first if it is nearly full
+     * @param type record type
+     * @param argument argument, 0 to 15
+     * @return true if the record was started, false if the recorder has been closed
+     */
+    private boolean record(int type, int argument) {
+        if (closed) {
+            return false;
+        }
+        if (buffer.remaining() < MAX_RECORD) {
+            try {
+                flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+                logger.error("Unable to write replay {}, giving up", path);
+                closed = true;
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+                return false;
+            }
+        }
+
+        long now = System.nanoTime();
+        long elapsed = (now - lastNanos) / 1_000_000;
+        //keep the leftover so rounding doesn't drift over a long game
+        lastNanos = now - (now - lastNanos) % 1_000_000;
+
+        buffer.put((byte) (type << 4 | argument));
+        //varint, seven bits per byte, low bits first
+        while (elapsed >= 0x80) {
+            buffer.put((byte) (elapsed | 0x80));
+            elapsed >>>= 7;
+        }
+        buffer.put((byte) elapsed);
+        return true;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
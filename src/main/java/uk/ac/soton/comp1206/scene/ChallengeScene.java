@@ -22,12 +22,12 @@ import javafx.scene.text.Text;
 import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.component.GameBlock;
 import uk.ac.soton.comp1206.component.GameBlockCoordinate;
-import uk.ac.soton.comp1206.component.GameBoard;
+import uk.ac.soton.comp1206.bot.Move;
+import uk.ac.soton.comp1206.component.BoardView;
 import uk.ac.soton.comp1206.component.PieceBoard;
 import uk.ac.soton.comp1206.game.Game;
-import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.engine.GamePiece;
 import uk.ac.soton.comp1206.game.Multimedia;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
@@ -47,7 +47,7 @@ public class ChallengeScene extends BaseScene {
     protected Game game;
     private PieceBoard currentPiece;
     private PieceBoard nextPiece;
-    protected GameBoard board;
+    protected BoardView board;
     protected BorderPane mainPane;
     private File scoresFile = new File("./scores.txt");
     private Text highScoreText;
@@ -81,11 +81,11 @@ public class ChallengeScene extends BaseScene {
         mainPane = new BorderPane();
         challengePane.getChildren().add(mainPane);
 
-        board = new GameBoard(game.getGrid(),gameWindow.getWidth()/2,gameWindow.getWidth()/2);
-        mainPane.setCenter(board);
+        board = BoardView.create(game.getGrid(),gameWindow.getWidth()/2,gameWindow.getWidth()/2);
+        mainPane.setCenter(board.getNode());
 
         //Handle block on gameboard grid being clicked
-        board.setOnBlockClick(this::blockClicked);
+        board.setOnCellClick(this::cellClicked);
 
         /**
          * hbox set to the top of the scene to hold game data
@@ -174,11 +174,12 @@ public class ChallengeScene extends BaseScene {
     }
 
     /**
-     * Handle when a block is clicked
-     * @param gameBlock the Game Block that was clocked
+     * Handle when a cell is clicked
+     * @param x column of the cell
+     * @param y row of the cell
      */
-    private void blockClicked(GameBlock gameBlock) {
-        game.blockClicked(gameBlock);
+    private void cellClicked(int x, int y) {
+        game.blockClicked(x, y);
     }
 
     /**
@@ -231,37 +232,71 @@ public class ChallengeScene extends BaseScene {
             nextPiece(game.getCurrentPiece());
             nextPiece(game.getFollowingPiece());
         }
+        //ask for a hint: turn the pieces to match it and move the highlight onto it
+        if (e.getCode() == KeyCode.H) {
+            logger.info("Asking for a hint");
+            game.requestHint(this::showHint);
+        }
         //drop a piece
         if (e.getCode() == KeyCode.X) {
-            blockClicked(board.getBlock(game.getCurrentX(), game.getCurrentY()));
+            cellClicked(game.getCurrentX(), game.getCurrentY());
         }
         //move current block up
         if (e.getCode() == KeyCode.W) {
             game.setCurrentY(-1);
-            board.currentBlock(board.getBlock(game.getCurrentX(), game.getCurrentY()));
-            logger.info("Current position is: (" + game.getCurrentX() + "," + game.getCurrentY() + ")");
+            board.highlight(game.getCurrentX(), game.getCurrentY());
+            logger.debug("Current position is: ({},{})", game.getCurrentX(), game.getCurrentY());
         }
         //move current block down
         if (e.getCode() == KeyCode.S) {
             game.setCurrentY(1);
-            board.currentBlock(board.getBlock(game.getCurrentX(), game.getCurrentY()));
-            logger.info("Current position is: (" + game.getCurrentX() + "," + game.getCurrentY() + ")");
+            board.highlight(game.getCurrentX(), game.getCurrentY());
+            logger.debug("Current position is: ({},{})", game.getCurrentX(), game.getCurrentY());
         }
         //move current block left
         if (e.getCode() == KeyCode.A) {
             game.setCurrentX(-1);
-            board.currentBlock(board.getBlock(game.getCurrentX(), game.getCurrentY()));
-            logger.info("Current position is: (" + game.getCurrentX() + "," + game.getCurrentY() + ")");
+            board.highlight(game.getCurrentX(), game.getCurrentY());
+            logger.debug("Current position is: ({},{})", game.getCurrentX(), game.getCurrentY());
         }
         //move current block right
         if (e.getCode() == KeyCode.D) {
             game.setCurrentX(1);
-            board.currentBlock(board.getBlock(game.getCurrentX(), game.getCurrentY()));
-            logger.info("Current position is: (" + game.getCurrentX() + "," + game.getCurrentY() + ")");
+            board.highlight(game.getCurrentX(), game.getCurrentY());
+            logger.debug("Current position is: ({},{})", game.getCurrentX(), game.getCurrentY());
         }
 
     }
 
+    /**
+     * Show a suggested move by swapping and rotating the pieces to match it and highlighting where it goes
+     * @param move suggested move
+     */
+    protected void showHint(Move move) {
+        if (move == null || game.getStopGame()) {
+            return;
+        }
+        //the pieces may have been swapped since the hint was asked for
+        var piece = move.isSwap() ? game.getFollowingPiece() : game.getCurrentPiece();
+        if (piece.getPiece() != move.getPiece()) {
+            logger.debug("Dropping hint for a piece no longer held: {}", move);
+            return;
+        }
+        logger.info("Hint: {}", move);
+        if (move.isSwap()) {
+            game.swapCurrentPiece();
+        }
+        int turns = (move.getRotation() - game.getCurrentPiece().getRotation()) & 3;
+        if (turns != 0) {
+            game.rotateCurrentPiece(turns);
+        }
+        nextPiece(game.getCurrentPiece());
+        nextPiece(game.getFollowingPiece());
+        game.setCurrentX(move.getX() - game.getCurrentX());
+        game.setCurrentY(move.getY() - game.getCurrentY());
+        board.highlight(game.getCurrentX(), game.getCurrentY());
+    }
+
     public void nextPiece(GamePiece piece) {
         if (piece == game.getCurrentPiece()) {
             currentPiece.setColour(game.getColour());
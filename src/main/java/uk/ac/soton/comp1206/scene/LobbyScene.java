@@ -28,6 +28,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.game.Multimedia;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.Protocol;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 import javafx.event.ActionEvent;
@@ -39,7 +40,7 @@ public class LobbyScene extends BaseScene {
 
     private static final Logger logger = LogManager.getLogger(LobbyScene.class);
 
-    private Communicator communicator = new Communicator("ws://discord.ecs.soton.ac.uk:9700");
+    private final Communicator communicator;
 
     private BorderPane mainPane;
 
@@ -61,6 +62,7 @@ public class LobbyScene extends BaseScene {
 
     public LobbyScene(GameWindow gameWindow) {
         super(gameWindow);
+        communicator = gameWindow.getCommunicator();
     }
 
     @Override
@@ -83,7 +85,14 @@ public class LobbyScene extends BaseScene {
         mainPane = new BorderPane();
         menuPane.getChildren().add(mainPane);
 
-        communicator.addListener(this::receiveCommunication);
+        communicator.addListener("CHANNELS", this::receiveChannels);
+        communicator.addListener("JOIN", this::receiveJoin);
+        communicator.addListener("HOST", this::receiveHost);
+        communicator.addListener("NICK", this::receiveNick);
+        communicator.addListener("USERS", this::receiveUsers);
+        communicator.addListener("PARTED", this::receiveParted);
+        communicator.addListener("MSG", this::receiveChat);
+        communicator.addListener("START", this::receiveStart);
 
         //set title text
         var text = new Text("Current Games");
@@ -143,73 +152,73 @@ public class LobbyScene extends BaseScene {
     }
 
     /**
-     * handles messages from the server
+     * receiving active games
      */
-    public void receiveCommunication(String message) {
-        //receiving active games
-        if (message.contains("CHANNELS")) {
-            var message1 = message.replaceFirst("CHANNELS ", "");
-            var split = message1.split("\n");
-            arrList = new ArrayList<>();
-            Collections.addAll(arrList, split);
-            /**
-             * maybe call options here
-             */
-            Platform.runLater(() -> options());
-        }
+    private void receiveChannels(String message) {
+        arrList = Protocol.parseNames(message);
+        /**
+         * maybe call options here
+         */
+        Platform.runLater(() -> options());
+    }
 
-        //when joining or hosting a game is requested
-        if (message.contains("JOIN ")) {
-            Platform.runLater(() -> displayChatBox());
-            userList.clear();
-        }
+    /**
+     * when joining or hosting a game is requested
+     */
+    private void receiveJoin(String message) {
+        Platform.runLater(() -> displayChatBox());
+        userList.clear();
+    }
 
-        //when hosting a game
-        if (message.contains("HOST")) {
-            isHost = true;
-        }
+    /**
+     * when hosting a game
+     */
+    private void receiveHost(String message) {
+        isHost = true;
+    }
 
-        //changing nickname
-        if (message.contains("NICK")) {
-            var message1 = message.replaceFirst("NICK ", "");
-            if (message.contains(":")) {
-                var split = message1.split(":");
-                username = split[1];
-            } else {
-                username = message1;
-            }
-        }
+    /**
+     * changing nickname
+     */
+    private void receiveNick(String message) {
+        username = Protocol.parseNick(message);
+    }
 
-        //user list
-        if (message.contains("USERS")) {
-            var message1 = message.replaceFirst("USERS ", "");
-            var users = message1.split("\n");
-            for (String user : users) {
-                logger.info("User from comm: " + user);
-            }
-            userList.clear();
-            Collections.addAll(userList, users);
-            for (String user : userList) {
-                logger.info("User list contains: " + user);
-            }
+    /**
+     * user list
+     */
+    private void receiveUsers(String message) {
+        var users = Protocol.parseNames(message);
+        for (String user : users) {
+            logger.info("User from comm: " + user);
         }
-
-        //when leaving a channel
-        if (message.contains("PARTED")) {
-            Platform.runLater(() -> clearChatBox());
+        userList.clear();
+        userList.addAll(users);
+        for (String user : userList) {
+            logger.info("User list contains: " + user);
         }
+    }
 
-        //when receiving a chat message -- player:mssg
-        if (message.contains("MSG")) {
-            var message1 = message.replaceFirst("MSG ", "");
-            var split = message1.split(":");
-            Platform.runLater(() -> receiveMessage(split[0], split[1]));
-        }
+    /**
+     * when leaving a channel
+     */
+    private void receiveParted(String message) {
+        Platform.runLater(() -> clearChatBox());
+    }
 
-        //when starting a game
-        if (message.contains("START")) {
-            Platform.runLater(() -> enterGame());
-        }
+    /**
+     * when receiving a chat message -- player:mssg
+     */
+    private void receiveChat(String message) {
+        var chat = Protocol.parseChat(message);
+        Platform.runLater(() -> receiveMessage(chat.getPlayer(), chat.getText()));
+    }
+
+    /**
+     * when starting a game
+     */
+    private void receiveStart(String message) {
+        Platform.runLater(() -> enterGame());
     }
 
     /**
@@ -4,12 +4,8 @@ import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
-import javafx.beans.property.ListProperty;
-import javafx.beans.property.SimpleListProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
@@ -23,22 +19,21 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
-import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.component.GameBlock;
-import uk.ac.soton.comp1206.component.GameBoard;
+import uk.ac.soton.comp1206.component.BoardView;
 import uk.ac.soton.comp1206.component.PieceBoard;
 import uk.ac.soton.comp1206.game.Game;
-import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.engine.GamePiece;
 import uk.ac.soton.comp1206.game.Multimedia;
+import uk.ac.soton.comp1206.game.LeaderboardModel;
 import uk.ac.soton.comp1206.game.MultiplayerGame;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.Protocol;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 import uk.ac.soton.comp1206.ui.Leaderboard;
 
-import java.util.*;
 
 public class MultiplayerScene extends ChallengeScene {
 
@@ -50,11 +45,8 @@ public class MultiplayerScene extends ChallengeScene {
     private VBox gameBoardVbox = new VBox(15);
     private Leaderboard leaderboard = new Leaderboard();
 
-    private ObservableList<Pair<String, Integer>> observableList = FXCollections.observableArrayList();
-    private ListProperty<Pair<String, Integer>> scores = new SimpleListProperty<>(observableList);
-
-    private ObservableList<Pair<String, String>> observableLives = FXCollections.observableArrayList();
-    private ListProperty<Pair<String, String>> livingStatus = new SimpleListProperty<>(observableLives);
+    //every player's score, kept up to date by the server and shown by the leaderboard
+    private LeaderboardModel standings = new LeaderboardModel();
 
     public MultiplayerScene(GameWindow gameWindow, Communicator comm) {
         super(gameWindow);
@@ -83,14 +75,18 @@ public class MultiplayerScene extends ChallengeScene {
         mainPane = new BorderPane();
         challengePane.getChildren().add(mainPane);
 
-        board = new GameBoard(game.getGrid(),gameWindow.getWidth()/2,gameWindow.getWidth()/2);
-        gameBoardVbox.getChildren().add(board);
+        board = BoardView.create(game.getGrid(),gameWindow.getWidth()/2,gameWindow.getWidth()/2);
+        gameBoardVbox.getChildren().add(board.getNode());
         mainPane.setCenter(gameBoardVbox);
 
         //Handle block on gameboard grid being clicked
-        board.setOnBlockClick(this::blockClicked);
+        board.setOnCellClick(this::cellClicked);
 
-        communicator.addListener(this::receiveCommunication);
+        communicator.addListener("MSG", this::receiveCommunication);
+        communicator.addListener("SCORES", this::receiveCommunication);
+        communicator.addListener("SCORE", this::receiveStanding);
+        communicator.addListener("LIVES", this::receiveStanding);
+        communicator.addListener("DIE", this::receiveStanding);
 
         /**
          * hbox set to the top of the scene to hold game data
@@ -178,12 +174,11 @@ public class MultiplayerScene extends ChallengeScene {
         //when game loop finished print new progress bar
         game.setOnGameLoop(this::gameLoopStart);
 
-        leaderboard.getScores().bind(scores);
         leaderboard.setPadding(new Insets(30));
+        standings.setListener(leaderboard);
 
-        leaderboard.getLives().bind(livingStatus);
-
-        leaderBoardTimer();
+        //ask for everyone's scores once; after that the server pushes each change
+        getUserScores();
     }
 
     /**
@@ -218,7 +213,7 @@ public class MultiplayerScene extends ChallengeScene {
      * when block is clicked send that information to multiplayer game to handle
      * @param block
      */
-    private void blockClicked(GameBlock block) { game.blockClicked(block); }
+    private void cellClicked(int x, int y) { game.blockClicked(x, y); }
 
     /**
      * handles messages from server
@@ -226,18 +221,32 @@ public class MultiplayerScene extends ChallengeScene {
      * @param message
      */
     public void receiveCommunication(String message) {
-        if (message.contains("MSG")) {
-            var message1 = message.replaceFirst("MSG ", "");
+        if (message.startsWith("MSG")) {
+            var message1 = Protocol.body(message);
             Platform.runLater(() -> receiveChat(message1));
         }
 
-        //updating leaderboard
-        if (message.contains("SCORES")) {
-            /**
-             * gonna have to be PLATFORM RUN LATER + USE LEADERBOARD CLASS
-             * have a display leaderboard method
-             */
-            Platform.runLater(() -> displayLeaderboard(message));
+        //every player's score, to start the leaderboard from
+        if (message.startsWith("SCORES")) {
+            var entries = Protocol.parseScores(message);
+            Platform.runLater(() -> standings.reset(entries));
+        }
+    }
+
+    /**
+     * handles one player's score or lives changing, pushed by the server, moving just their row on the leaderboard
+     * @param message SCORE, LIVES or DIE message
+     */
+    private void receiveStanding(String message) {
+        var player = Protocol.parsePlayer(message);
+        if (message.startsWith("SCORE")) {
+            var score = Protocol.parsePlayerValue(message);
+            Platform.runLater(() -> standings.updateScore(player, score));
+        } else if (message.startsWith("LIVES")) {
+            var lives = Protocol.parsePlayerValue(message);
+            Platform.runLater(() -> standings.updateLives(player, lives));
+        } else {
+            Platform.runLater(() -> standings.playerDied(player));
         }
     }
 
@@ -253,50 +262,6 @@ public class MultiplayerScene extends ChallengeScene {
         communicator.send("SCORES");
     }
 
-    /**
-     * displays the leaderboard
-     */
-    public void displayLeaderboard(String message) {
-        logger.info("Updating leaderboard");
-        var message1 = message.replaceFirst("SCORES ", "");
-        var split = message1.split("[\n:]+");
-        List<String> arrList = new ArrayList<>();
-        Collections.addAll(arrList, split);
-
-        //refreshing from last time
-        scores.clear();
-        livingStatus.clear();
-        leaderboard.clear();
-        /**
-         * compare users based on score -- poss. Integer.valueOf(split[1])
-         * remove prev vbox then replace with ordered
-         * call this on a timer
-         */
-        while (!arrList.isEmpty()) {
-            Pair<String, Integer> score = new Pair<>(arrList.get(0), Integer.valueOf(arrList.get(1)));
-            Pair<String, String> alive = new Pair<>(arrList.get(0), arrList.get(2));
-
-            scores.add(score);
-
-            if (alive.getValue().contains("DEAD")) {
-                livingStatus.add(alive);
-            }
-
-            arrList.remove(0);
-            arrList.remove(0);
-            arrList.remove(0);
-        }
-        //sorts the leaderboard in order of score
-        scores.sort(Comparator.comparingInt(o -> o.getValue()));
-        Collections.reverse(scores);
-
-        /**
-         * reveal leaderboard in UI
-         */
-        leaderboard.displayLeaderboard();
-
-    }
-
     @Override
     public void keyPressed(KeyEvent e) {
         //esc to menu
@@ -329,31 +294,31 @@ public class MultiplayerScene extends ChallengeScene {
         }
         //drop a piece
         if (e.getCode() == KeyCode.X) {
-            blockClicked(board.getBlock(game.getCurrentX(), game.getCurrentY()));
+            cellClicked(game.getCurrentX(), game.getCurrentY());
         }
         //move current block up
         if (e.getCode() == KeyCode.W) {
             game.setCurrentY(-1);
-            board.currentBlock(board.getBlock(game.getCurrentX(), game.getCurrentY()));
-            logger.info("Current position is: (" + game.getCurrentX() + "," + game.getCurrentY() + ")");
+            board.highlight(game.getCurrentX(), game.getCurrentY());
+            logger.debug("Current position is: ({},{})", game.getCurrentX(), game.getCurrentY());
         }
         //move current block down
         if (e.getCode() == KeyCode.S) {
             game.setCurrentY(1);
-            board.currentBlock(board.getBlock(game.getCurrentX(), game.getCurrentY()));
-            logger.info("Current position is: (" + game.getCurrentX() + "," + game.getCurrentY() + ")");
+            board.highlight(game.getCurrentX(), game.getCurrentY());
+            logger.debug("Current position is: ({},{})", game.getCurrentX(), game.getCurrentY());
         }
         //move current block left
         if (e.getCode() == KeyCode.A) {
             game.setCurrentX(-1);
-            board.currentBlock(board.getBlock(game.getCurrentX(), game.getCurrentY()));
-            logger.info("Current position is: (" + game.getCurrentX() + "," + game.getCurrentY() + ")");
+            board.highlight(game.getCurrentX(), game.getCurrentY());
+            logger.debug("Current position is: ({},{})", game.getCurrentX(), game.getCurrentY());
         }
         //move current block right
         if (e.getCode() == KeyCode.D) {
             game.setCurrentX(1);
-            board.currentBlock(board.getBlock(game.getCurrentX(), game.getCurrentY()));
-            logger.info("Current position is: (" + game.getCurrentX() + "," + game.getCurrentY() + ")");
+            board.highlight(game.getCurrentX(), game.getCurrentY());
+            logger.debug("Current position is: ({},{})", game.getCurrentX(), game.getCurrentY());
         }
         //send chat message
         if (e.getCode() == KeyCode.T) {
@@ -376,21 +341,6 @@ public class MultiplayerScene extends ChallengeScene {
         }
     }
 
-    public void leaderBoardTimer() {
-        var leaderBoardTimer = new Timer();
-        var leaderBoardTask = new TimerTask() {
-            @Override
-            public void run() {
-                getUserScores();
-                if (leaderBoardTimer != null) {
-                    leaderBoardTimer.cancel();
-                }
-                leaderBoardTimer();
-            }
-        };
-        leaderBoardTimer.schedule(leaderBoardTask, 2000);
-    }
-
     @Override
     public void nextPiece(GamePiece piece) {
         if (piece == game.getCurrentPiece()) {
@@ -58,7 +58,7 @@ public class MultiplayerScoresScene extends ScoresScene{
         hbox.getChildren().addAll(localText, onlineText);
         mainPane.setTop(hbox);
 
-        communicator.addListener(this::receiveCommunication);
+        communicator.addListener("HISCORES", this::receiveCommunication);
         loadOnlineScores();
 
         displayGameScores();
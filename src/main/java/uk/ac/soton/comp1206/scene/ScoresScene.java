@@ -19,6 +19,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.Protocol;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 import uk.ac.soton.comp1206.ui.ScoresList;
@@ -37,7 +38,7 @@ public class ScoresScene extends BaseScene {
     protected ObservableList<Pair<String, Integer>> observableRemoteScores = FXCollections.observableArrayList();
     protected ListProperty<Pair<String, Integer>> remoteScores = new SimpleListProperty<>(observableRemoteScores);
 
-    protected Communicator communicator = new Communicator("ws://discord.ecs.soton.ac.uk:9700");
+    protected final Communicator communicator;
 
     //game end state
     protected Game game;
@@ -50,6 +51,7 @@ public class ScoresScene extends BaseScene {
     public ScoresScene(GameWindow gameWindow, Game game) {
         super(gameWindow);
         this.game = game;
+        this.communicator = gameWindow.getCommunicator();
     }
 
     @Override
@@ -82,7 +84,7 @@ public class ScoresScene extends BaseScene {
         mainPane.setTop(hbox);
 
 
-        communicator.addListener(this::receiveCommunication);
+        communicator.addListener("HISCORES", this::receiveCommunication);
         loadOnlineScores();
 
         displayLocalScores();
@@ -149,20 +151,11 @@ public class ScoresScene extends BaseScene {
      * @param message
      */
     public void receiveCommunication(String message) {
-        if (message.contains("HISCORES")) {
-            //remove the formatting--forms arr list with name, score, ...
-            String message1 = message.replaceFirst("HISCORES ", "");
-            var split = message1.split("[\n:]+");
-            List<String> arrList = new ArrayList<>();
-            Collections.addAll(arrList, split);
-
-            while (!arrList.isEmpty()) {
-                //takes name and score string and adds them to local scores
-                logger.info("Loading online score: " + arrList.get(0) + "," + arrList.get(1));
-                Pair<String, Integer> score = new Pair<>(arrList.get(0), Integer.valueOf(arrList.get(1)));
-                remoteScores.add(score);
-                arrList.remove(0);
-                arrList.remove(0);
+        if (message.startsWith("HISCORES")) {
+            for (var entry : Protocol.parseHiScores(message)) {
+                //takes name and score and adds them to online scores
+                logger.debug("Loading online score: {},{}", entry.getName(), entry.getScore());
+                remoteScores.add(new Pair<>(entry.getName(), entry.getScore()));
             }
         }
     }
@@ -63,7 +63,7 @@ public class GameWindow {
         setupDefaultScene();
 
         //Setup communicator
-        communicator = new Communicator("ws://discord.ecs.soton.ac.uk:9700");
+        communicator = Communicator.shared();
 
         //Go to menu
         startMenu();
@@ -1,46 +1,67 @@
 package uk.ac.soton.comp1206.ui;
 
-import javafx.beans.property.ListProperty;
-import javafx.beans.property.SimpleListProperty;
-import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
-import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.event.LeaderboardListener;
+import uk.ac.soton.comp1206.network.ScoreEntry;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-public class Leaderboard extends ScoresList {
-    private ListProperty<Pair<String, String>> lives = new SimpleListProperty<>();
+/**
+ * Shows the players in a multiplayer game by score, following a LeaderboardModel. There is one Text row per player,
+ * kept for the whole game: when a player's score or lives change only their row is updated, and moved if their place
+ * changed, rather than the whole board being rebuilt.
+ */
+public class Leaderboard extends ScoresList implements LeaderboardListener {
     private static final Logger logger = LogManager.getLogger(Leaderboard.class);
 
+    //each player's row
+    private final Map<String, Text> rows = new HashMap<>();
+
     public Leaderboard() {
         super();
     }
 
-    /**
-     * returns UI lives
-     */
-    public ListProperty<Pair<String, String>> getLives() { return lives; }
-
-    /**
-     * reveals the leaderboard
-     */
-    public void displayLeaderboard() {
-        logger.info("revealing leaderboard");
-
-
-        for (Pair<String, Integer> score : scores) {
-            var text = new Text(score.getKey() + ":" + score.getValue());
+    @Override
+    public void leaderboardReset(List<ScoreEntry> entries) {
+        logger.debug("Showing {} players", entries.size());
+        userScores.getChildren().clear();
+        rows.clear();
+        for (var entry : entries) {
+            var text = new Text();
             text.getStyleClass().add("leaderboard");
+            show(text, entry);
+            rows.put(entry.getName(), text);
+            userScores.getChildren().add(text);
+        }
+    }
 
-            for (Pair<String, String> life : lives) {
-                if (score.getKey().contains(life.getKey())) {
-                    text.getStyleClass().add("deadscore");
-                }
-            }
+    @Override
+    public void entryChanged(ScoreEntry entry, int from, int to) {
+        var text = rows.get(entry.getName());
+        if (text == null) {
+            text = new Text();
+            text.getStyleClass().add("leaderboard");
+            rows.put(entry.getName(), text);
+        } else if (from != to) {
+            userScores.getChildren().remove(text);
+        }
+        show(text, entry);
+        if (from != to) {
+            userScores.getChildren().add(to, text);
+        }
+    }
 
-            userScores.getChildren().add(text);
+    /**
+     * Set a row's text and style for a player
+     */
+    private void show(Text text, ScoreEntry entry) {
+        text.setText(entry.getName() + ":" + entry.getScore());
+        if (entry.isDead() && !text.getStyleClass().contains("deadscore")) {
+            text.getStyleClass().add("deadscore");
         }
     }
 
@@ -49,6 +70,7 @@ public class Leaderboard extends ScoresList {
      */
     public void clear() {
         userScores.getChildren().clear();
+        rows.clear();
     }
 
 }
@@ -0,0 +1,41 @@
+package uk.ac.soton.comp1206.bot;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the bot shares its time budget across every candidate move
+ */
+public class MonteCarloBotTest {
+
+    /**
+     * An empty board has far more candidates than workers, yet a bigger budget must still mean more playouts behind the
+     * chosen move
+     */
+    @Test
+    public void playoutsGrowWithBudget() {
+        var pool = new ForkJoinPool(4);
+        try {
+            var quick = new MonteCarloBot(pool, 0, 1L).bestMove(5, 5, 0L, 0, 1, 1);
+            var slow = new MonteCarloBot(pool, 200, 1L).bestMove(5, 5, 0L, 0, 1, 1);
+            assertNotNull(quick);
+            assertNotNull(slow);
+            assertEquals(MonteCarloBot.ROUND_PLAYOUTS, quick.getPlayouts());
+            assertTrue(slow.getPlayouts() + " playouts", slow.getPlayouts() > 10 * MonteCarloBot.ROUND_PLAYOUTS);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void noMoveWhenNothingFits() {
+        var full = (1L << 25) - 1;
+        assertNull(new MonteCarloBot(ForkJoinPool.commonPool(), 0, 1L).bestMove(5, 5, full, 0, 1, 1));
+    }
+}
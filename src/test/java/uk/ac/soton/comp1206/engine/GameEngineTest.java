@@ -0,0 +1,104 @@
+package uk.ac.soton.comp1206.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Plays the engine on a manual clock, so the whole level speed-up and running out of lives take no real time
+ */
+public class GameEngineTest {
+
+    /**
+     * Deals nothing but lines, so every play on a 3x3 board clears a line
+     */
+    private static final PieceGenerator LINES = new PieceGenerator() {
+        @Override
+        public long getSeed() {
+            return 0;
+        }
+
+        @Override
+        public int next() {
+            return 0;
+        }
+    };
+
+    @Test
+    public void timerShortensEachLevel() {
+        var scheduler = LoopScheduler.manual();
+        var engine = new GameEngine(new Board(3, 3), LINES, scheduler);
+        var delays = new ArrayList<Long>();
+        engine.setListener(new EngineListener() {
+            @Override
+            public void loopStarted(long delay) {
+                delays.add(delay);
+            }
+        });
+        engine.start();
+
+        var level = 0;
+        while (engine.getLevel() < 20) {
+            var delay = engine.getTimerDelay();
+            assertEquals(Math.max(2500, 12000 - 500 * engine.getLevel()), delay);
+
+            //just in time: the timer is restarted by the play
+            scheduler.advance(delay - 1);
+            assertTrue(engine.play(1, 1));
+            assertEquals(3, engine.getLives());
+            assertEquals(engine.getTimerDelay(), (long) delays.get(delays.size() - 1));
+
+            assertTrue(engine.getLevel() >= level);
+            level = engine.getLevel();
+        }
+        assertEquals(2500, engine.getTimerDelay());
+    }
+
+    @Test
+    public void timerRunningOutLosesLives() {
+        var scheduler = LoopScheduler.manual();
+        var engine = new GameEngine(new Board(5, 5), new UniformPieceGenerator(1), scheduler);
+        var over = new int[1];
+        engine.setListener(new EngineListener() {
+            @Override
+            public void gameOver() {
+                over[0]++;
+            }
+        });
+        engine.start();
+
+        var following = engine.getFollowingPiece();
+        scheduler.advance(12000);
+        assertEquals(2, engine.getLives());
+        assertEquals(1, engine.getMultiplier());
+        //the current piece is thrown away
+        assertEquals(following, engine.getCurrentPiece());
+
+        scheduler.advance(12000 * 2);
+        assertEquals(0, engine.getLives());
+        assertFalse(engine.isOver());
+
+        scheduler.advance(12000);
+        assertTrue(engine.isOver());
+        assertEquals(1, over[0]);
+
+        scheduler.advance(60000);
+        assertEquals(1, over[0]);
+        assertFalse(engine.play(2, 2));
+    }
+
+    @Test
+    public void stoppedGameNeverExpires() {
+        var scheduler = LoopScheduler.manual();
+        var engine = new GameEngine(new Board(5, 5), new UniformPieceGenerator(1), scheduler);
+        engine.start();
+        scheduler.advance(6000);
+        engine.stop();
+        scheduler.advance(60000);
+        assertEquals(3, engine.getLives());
+    }
+}
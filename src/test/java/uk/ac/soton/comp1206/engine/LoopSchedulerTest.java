@@ -0,0 +1,127 @@
+package uk.ac.soton.comp1206.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the timing wheel on a manual clock
+ */
+public class LoopSchedulerTest {
+
+    @Test
+    public void firesAtDeadline() {
+        var scheduler = LoopScheduler.manual();
+        var fired = new ArrayList<Long>();
+        var timeout = scheduler.newTimeout(() -> fired.add(scheduler.now()));
+
+        timeout.schedule(1000);
+        scheduler.advance(999);
+        assertTrue(fired.isEmpty());
+        scheduler.advance(1);
+        assertEquals(List.of(1000L), fired);
+        assertFalse(timeout.isPending());
+    }
+
+    @Test
+    public void rescheduleReplacesDeadline() {
+        var scheduler = LoopScheduler.manual();
+        var fired = new ArrayList<Long>();
+        var timeout = scheduler.newTimeout(() -> fired.add(scheduler.now()));
+
+        timeout.schedule(1000);
+        scheduler.advance(500);
+        timeout.schedule(1000);
+        scheduler.advance(1000);
+        assertEquals(List.of(1500L), fired);
+    }
+
+    /**
+     * Two timeouts expire on the same tick and whichever runs first reschedules the other, which has already been taken
+     * off the wheel. The other must not run until its new deadline.
+     */
+    @Test
+    public void rescheduleBetweenExpiryAndRun() {
+        var scheduler = LoopScheduler.manual();
+        var fired = new ArrayList<String>();
+        var timeouts = new LoopScheduler.Timeout[2];
+        for (var i = 0; i < 2; i++) {
+            var name = "timeout" + i;
+            var other = 1 - i;
+            timeouts[i] = scheduler.newTimeout(() -> {
+                fired.add(name + "@" + scheduler.now());
+                timeouts[other].schedule(500);
+            });
+        }
+
+        timeouts[0].schedule(1000);
+        timeouts[1].schedule(1000);
+        scheduler.advance(1000);
+        assertEquals(1, fired.size());
+        assertTrue(timeouts[0].isPending() != timeouts[1].isPending());
+
+        scheduler.advance(500);
+        assertEquals(2, fired.size());
+        assertTrue(fired.get(1).endsWith("@1500"));
+    }
+
+    /**
+     * As above, but the first to run cancels the other, which must not run at all
+     */
+    @Test
+    public void cancelBetweenExpiryAndRun() {
+        var scheduler = LoopScheduler.manual();
+        var fired = new ArrayList<String>();
+        var timeouts = new LoopScheduler.Timeout[2];
+        for (var i = 0; i < 2; i++) {
+            var name = "timeout" + i;
+            var other = 1 - i;
+            timeouts[i] = scheduler.newTimeout(() -> {
+                fired.add(name);
+                timeouts[other].cancel();
+            });
+        }
+
+        timeouts[0].schedule(1000);
+        timeouts[1].schedule(1000);
+        scheduler.advance(5000);
+        assertEquals(1, fired.size());
+        assertFalse(timeouts[0].isPending() || timeouts[1].isPending());
+    }
+
+    /**
+     * The wheel thread is idle when a timeout is scheduled, and only gets the lock back after the deadline, as after a
+     * GC pause. The timeout must still fire then, not a whole turn of the wheel later.
+     */
+    @Test
+    public void lateWakeFromIdle() throws Exception {
+        //1ms ticks, so a turn of the wheel is about 4s
+        var scheduler = new LoopScheduler("Test Loop", 1, 4096);
+        var lockField = LoopScheduler.class.getDeclaredField("lock");
+        lockField.setAccessible(true);
+        var lock = lockField.get(scheduler);
+        try {
+            var first = new CountDownLatch(1);
+            scheduler.newTimeout(first::countDown).schedule(1);
+            assertTrue(first.await(1, TimeUnit.SECONDS));
+            //let the wheel thread go idle
+            Thread.sleep(50);
+
+            var fired = new CountDownLatch(1);
+            synchronized (lock) {
+                scheduler.newTimeout(fired::countDown).schedule(5);
+                Thread.sleep(50);
+            }
+            assertTrue(fired.await(1, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package uk.ac.soton.comp1206.game;
+
+import org.junit.Test;
+import uk.ac.soton.comp1206.engine.UniformPieceGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Deals a server's piece stream through the queue, with the server falling behind
+ */
+public class PieceQueueTest {
+
+    @Test
+    public void prefetchesToDepth() {
+        var requests = new int[1];
+        var queue = new PieceQueue(5, new UniformPieceGenerator(1), () -> requests[0]++);
+        assertEquals(0, requests[0]);
+        queue.open();
+        assertEquals(5, requests[0]);
+        assertTrue(queue.add(3));
+        assertEquals(3, queue.next());
+        assertEquals(6, requests[0]);
+        assertEquals(0, queue.getGaps());
+    }
+
+    /**
+     * Every piece the player is dealt is the server's piece for that turn, except the turns the server was too late for
+     */
+    @Test
+    public void backInStepAfterGap() {
+        var queue = new PieceQueue(2, new UniformPieceGenerator(1), () -> { });
+        var server = new int[20];
+        for (var i = 0; i < server.length; i++) {
+            server[i] = (i * 7) % 15;
+        }
+
+        //the two starting pieces are dealt before anything arrives
+        queue.next();
+        queue.next();
+        queue.open();
+        assertFalse(queue.add(server[0]));
+        assertFalse(queue.add(server[1]));
+
+        var sent = 2;
+        for (var turn = 2; turn < server.length; turn++) {
+            //the server misses turns 5 and 11, catching up afterwards
+            if (turn != 5 && turn != 11) {
+                while (sent <= turn) {
+                    queue.add(server[sent++]);
+                }
+            }
+            var piece = queue.next();
+            if (turn != 5 && turn != 11) {
+                assertEquals("turn " + turn, server[turn], piece);
+            }
+        }
+        assertEquals(2, queue.getGaps());
+    }
+}
@@ -0,0 +1,93 @@
+package uk.ac.soton.comp1206.network;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Decodes each kind of server message, including malformed ones
+ */
+public class ProtocolTest {
+
+    @Test
+    public void command() {
+        assertEquals("SCORES", MessageReader.command("SCORES a:1:2"));
+        assertEquals("CHANNELS", MessageReader.command("CHANNELS\ngame"));
+        assertEquals("HOST", MessageReader.command("HOST"));
+    }
+
+    @Test
+    public void piece() {
+        assertEquals(12, Protocol.parsePiece("PIECE 12"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void pieceWithoutNumber() {
+        Protocol.parsePiece("PIECE x");
+    }
+
+    @Test
+    public void scores() {
+        var scores = Protocol.parseScores("SCORES alice:120:2\nbob:300:DEAD\ncarl:-5:0");
+        assertEquals(3, scores.size());
+        assertEquals("alice", scores.get(0).getName());
+        assertEquals(120, scores.get(0).getScore());
+        assertEquals(2, scores.get(0).getLives());
+        assertFalse(scores.get(0).isDead());
+        assertTrue(scores.get(1).isDead());
+        assertEquals(-5, scores.get(2).getScore());
+    }
+
+    @Test
+    public void malformedScoreIsSkipped() {
+        var scores = Protocol.parseScores("SCORES alice:x:2\nbob:300:1\ncarl:99999999999:1");
+        assertEquals(1, scores.size());
+        assertEquals("bob", scores.get(0).getName());
+    }
+
+    @Test
+    public void hiScores() {
+        var scores = Protocol.parseHiScores("HISCORES a:1\n\nb:20\n");
+        assertEquals(2, scores.size());
+        assertEquals("b", scores.get(1).getName());
+        assertEquals(20, scores.get(1).getScore());
+    }
+
+    @Test
+    public void names() {
+        assertEquals(List.of("g1", "g 2", "g3"), Protocol.parseNames("CHANNELS g1\ng 2\n\ng3"));
+        assertEquals(List.of(), Protocol.parseNames("USERS"));
+    }
+
+    @Test
+    public void chatKeepsColons() {
+        var chat = Protocol.parseChat("MSG bob:hi: there");
+        assertEquals("bob", chat.getPlayer());
+        assertEquals("hi: there", chat.getText());
+        assertEquals("", Protocol.parseChat("MSG bob").getText());
+    }
+
+    @Test
+    public void nick() {
+        assertEquals("solo", Protocol.parseNick("NICK solo"));
+        assertEquals("new", Protocol.parseNick("NICK old:new"));
+    }
+
+    @Test
+    public void playerUpdates() {
+        assertEquals("alice", Protocol.parsePlayer("SCORE alice:150"));
+        assertEquals(150, Protocol.parsePlayerValue("SCORE alice:150"));
+        assertEquals(2, Protocol.parsePlayerValue("LIVES alice:2"));
+        assertEquals("alice", Protocol.parsePlayer("DIE alice"));
+    }
+
+    @Test
+    public void body() {
+        assertEquals("x:y", Protocol.body("MSG x:y"));
+        assertEquals("", Protocol.body("LIST"));
+    }
+}
@@ -0,0 +1,84 @@
+package uk.ac.soton.comp1206.replay;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.soton.comp1206.engine.Board;
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.engine.GamePiece;
+import uk.ac.soton.comp1206.engine.LoopScheduler;
+import uk.ac.soton.comp1206.engine.MoveGenerator;
+import uk.ac.soton.comp1206.engine.UniformPieceGenerator;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Records a game and plays it back
+ */
+public class ReplayTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void playbackMatchesRecordedGame() throws Exception {
+        long seed = 42;
+        var engine = new GameEngine(new Board(5, 5), new UniformPieceGenerator(seed), LoopScheduler.manual());
+        var path = folder.getRoot().toPath().resolve("game.trp");
+        var recorder = new ReplayRecorder(path, 5, 5, seed, 0, engine.getCurrentPiece(), engine.getFollowingPiece());
+        engine.setListener(recorder);
+
+        //random legal moves, swaps and timeouts until the game ends
+        var random = new SplittableRandom(7);
+        var generator = new MoveGenerator(5, 5);
+        var moves = new int[generator.getMaxMoves()];
+        while (!engine.isOver()) {
+            if (random.nextInt(4) == 0) {
+                engine.swapCurrentPiece();
+            }
+            int count = generator.generate(engine.getBoard().getOccupancy(), engine.getCurrentPiece().getPiece(), false,
+                    moves);
+            if (count == 0 || random.nextInt(20) == 0) {
+                engine.expire();
+                continue;
+            }
+            int move = moves[random.nextInt(count)];
+            int turns = (generator.rotation(move) - engine.getCurrentPiece().getRotation()) & 3;
+            if (turns != 0) {
+                engine.rotateCurrentPiece(turns);
+            }
+            assertTrue(engine.play(generator.x(move), generator.y(move)));
+        }
+        recorder.close();
+
+        var player = new ReplayPlayer(path);
+        assertEquals(seed, player.getSeed());
+        var replayed = player.playAll();
+        assertEquals(0, player.getDiverged());
+        assertTrue(player.isFinished());
+        assertEquals(engine.getScore(), replayed.getScore());
+        assertEquals(engine.getLevel(), replayed.getLevel());
+        assertEquals(engine.getLives(), replayed.getLives());
+        assertEquals(engine.getBoard().getOccupancy(), replayed.getBoard().getOccupancy());
+        assertTrue(replayed.isOver());
+    }
+
+    @Test
+    public void piecesSetFromOutsideAreReplayed() throws Exception {
+        var engine = new GameEngine(new Board(5, 5), new UniformPieceGenerator(1), LoopScheduler.manual());
+        var path = folder.getRoot().toPath().resolve("pieces.trp");
+        var recorder = new ReplayRecorder(path, 5, 5, 1, 0, engine.getCurrentPiece(), engine.getFollowingPiece());
+        engine.setListener(recorder);
+
+        //as a server would send it, not the engine's own
+        assertTrue(engine.replaceInitialPiece(0, GamePiece.createPiece(3)));
+        assertTrue(engine.play(0, 0));
+        recorder.close();
+
+        var replayed = new ReplayPlayer(path).playAll();
+        assertEquals(1L, replayed.getBoard().getOccupancy());
+    }
+}